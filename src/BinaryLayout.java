@@ -0,0 +1,221 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import jdg.graph.CSRGraph;
+
+/**
+ * A compact binary format for grid layouts, accessed through memory mapped files. <br>
+ * <br>
+ * The file is a sequence of 32-bit integers (little endian): <br>
+ * -) header (8 integers): magic number, version, n, m, width, height, maxBends, total number of bends <br>
+ * -) CSR representation of the graph: offsets[n+1], targets[2m], edgeIds[2m], ends[2m] (see <tt>CSRGraph</tt>) <br>
+ * -) vertex coordinates: x[n], y[n] <br>
+ * -) bend points: bendOffsets[m+1], bendX[b], bendY[b] (the bends of edge 'j' are stored between bendOffsets[j] and bendOffsets[j+1]) <br>
+ * <br>
+ * Once a file is opened, all arrays are exposed as <tt>IntBuffer</tt> views of the mapped file (nothing is parsed or copied):
+ * the layout is built with bulk copies (<tt>toGridLayout()</tt>). <br>
+ * <br>
+ * Remark: edges without bends have no bend points in the layout (<tt>bendPoints[j]=null</tt>)
+ */
+public class BinaryLayout {
+	/** magic number ("GLAY") and version of the format */
+	public static final int MAGIC=0x59414c47, VERSION=1;
+	/** size of the header (number of integers) */
+	public static final int HEADER_SIZE=8;
+
+	/** name of the layout (the file name without extension) */
+	public String name;
+	public int n, m, width, height, maxBends, nBends;
+
+	/** views of the arrays stored in the mapped file */
+	public IntBuffer offsets, targets, edgeIds, ends;
+	public IntBuffer x, y;
+	public IntBuffer bendOffsets, bendX, bendY;
+
+	/**
+	 * Open a layout stored in binary format (the file is mapped in memory)
+	 */
+	public BinaryLayout(String filename) {
+		this.name=filename.replaceAll(".bin", "");
+		MappedByteBuffer buffer;
+		try(RandomAccessFile file=new RandomAccessFile(filename, "r"); FileChannel channel=file.getChannel()) {
+			buffer=channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // the mapping remains valid after closing the channel
+		} catch (IOException ex) {
+			throw new Error("Error: cannot read file "+filename+" ("+ex.getMessage()+")");
+		}
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		IntBuffer data=buffer.asIntBuffer();
+
+		if(data.limit()<HEADER_SIZE || data.get(0)!=MAGIC)
+			throw new Error("Error: wrong binary format ("+filename+")");
+		if(data.get(1)!=VERSION)
+			throw new Error("Error: unsupported version of the binary format: "+data.get(1));
+		this.n=data.get(2);
+		this.m=data.get(3);
+		this.width=data.get(4);
+		this.height=data.get(5);
+		this.maxBends=data.get(6);
+		this.nBends=data.get(7);
+		if(data.limit()!=size(this.n, this.m, this.nBends))
+			throw new Error("Error: wrong size of the binary file ("+filename+")");
+
+		int position=HEADER_SIZE;
+		this.offsets=slice(data, position, this.n+1);
+		position+=this.n+1;
+		this.targets=slice(data, position, 2*this.m);
+		position+=2*this.m;
+		this.edgeIds=slice(data, position, 2*this.m);
+		position+=2*this.m;
+		this.ends=slice(data, position, 2*this.m);
+		position+=2*this.m;
+		this.x=slice(data, position, this.n);
+		position+=this.n;
+		this.y=slice(data, position, this.n);
+		position+=this.n;
+		this.bendOffsets=slice(data, position, this.m+1);
+		position+=this.m+1;
+		this.bendX=slice(data, position, this.nBends);
+		position+=this.nBends;
+		this.bendY=slice(data, position, this.nBends);
+	}
+
+	/**
+	 * Return the number of integers stored in a file
+	 */
+	private static long size(int n, int m, int nBends) {
+		return HEADER_SIZE+(n+1)+6L*m+2L*n+(m+1)+2L*nBends;
+	}
+
+	/**
+	 * Return a view of the sub-array data[start..start+length-1]
+	 */
+	private static IntBuffer slice(IntBuffer data, int start, int length) {
+		IntBuffer view=data.duplicate();
+		view.position(start);
+		view.limit(start+length);
+		return view.slice();
+	}
+
+	/**
+	 * Return the content of a view, as an array
+	 */
+	private static int[] toArray(IntBuffer view) {
+		int[] result=new int[view.limit()];
+		view.duplicate().get(result); // bulk copy
+		return result;
+	}
+
+	/**
+	 * Build the grid layout (the graph is stored in compact form: <tt>layout.g=null</tt>)
+	 */
+	public GridLayout toGridLayout() {
+		CSRGraph csr=new CSRGraph(this.n, this.m, toArray(this.offsets), toArray(this.targets), toArray(this.edgeIds), toArray(this.ends));
+
+		int[] xs=toArray(this.x), ys=toArray(this.y);
+		GridPoint[] points=new GridPoint[this.n];
+		for(int v=0;v<this.n;v++)
+			points[v]=new GridPoint(xs[v], ys[v]);
+
+		int[] bo=toArray(this.bendOffsets), bx=toArray(this.bendX), by=toArray(this.bendY);
+		GridPoint[][] bends=new GridPoint[this.m][];
+		for(int j=0;j<this.m;j++) {
+			if(bo[j+1]==bo[j])
+				continue; // no bends
+			bends[j]=new GridPoint[bo[j+1]-bo[j]];
+			for(int k=bo[j];k<bo[j+1];k++)
+				bends[j][k-bo[j]]=new GridPoint(bx[k], by[k]);
+		}
+		return new GridLayout(this.name, csr, points, bends, this.maxBends, this.width, this.height);
+	}
+
+	/**
+	 * Save a layout in binary format (the output file is mapped in memory, and written with bulk copies)
+	 */
+	public static void write(GridLayout layout, String filename) {
+		CSRGraph csr=layout.csr;
+		int n=layout.n, m=layout.e;
+		int[] bendOffsets=new int[m+1];
+		for(int j=0;j<m;j++) {
+			GridPoint[] bends=(layout.bendPoints!=null) ? layout.bendPoints[j] : null;
+			bendOffsets[j+1]=bendOffsets[j]+((bends!=null) ? bends.length : 0);
+		}
+		int nBends=bendOffsets[m];
+
+		try(RandomAccessFile file=new RandomAccessFile(filename, "rw"); FileChannel channel=file.getChannel()) {
+			long bytes=4*size(n, m, nBends);
+			file.setLength(bytes);
+			MappedByteBuffer buffer=channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			IntBuffer data=buffer.asIntBuffer();
+
+			data.put(new int[] {MAGIC, VERSION, n, m, layout.width, layout.height, layout.maxBends, nBends});
+			data.put(csr.offsets, 0, n+1);
+			data.put(csr.targets, 0, 2*m);
+			data.put(csr.edgeIds, 0, 2*m);
+			data.put(csr.ends, 0, 2*m);
+			int[] coordinates=new int[Math.max(n, nBends)];
+			for(int v=0;v<n;v++)
+				coordinates[v]=layout.points[v].getX();
+			data.put(coordinates, 0, n);
+			for(int v=0;v<n;v++)
+				coordinates[v]=layout.points[v].getY();
+			data.put(coordinates, 0, n);
+			data.put(bendOffsets);
+			for(int axis=0;axis<2;axis++) {
+				for(int j=0;j<m;j++) {
+					for(int k=bendOffsets[j];k<bendOffsets[j+1];k++) {
+						GridPoint p=layout.bendPoints[j][k-bendOffsets[j]];
+						coordinates[k]=(axis==0) ? p.getX() : p.getY();
+					}
+				}
+				data.put(coordinates, 0, nBends);
+			}
+			buffer.force();
+		} catch (IOException ex) {
+			throw new Error("Error: cannot write file "+filename+" ("+ex.getMessage()+")");
+		}
+	}
+
+	/**
+	 * Convert layouts between the binary format and the JSON/OFF formats: <br>
+	 * <tt>java BinaryLayout input.json output.bin</tt> (or input.off, input.edges, input.json.gz) <br>
+	 * <tt>java BinaryLayout input.bin output.json</tt> (or output.json.gz)
+	 */
+	public static void main(String[] args) {
+		if(args.length<2) {
+			System.out.println("Error: two arguments required: input and output files (JSON, OFF, EDGES or binary format)");
+			System.exit(0);
+		}
+		String inputFile=args[0], outputFile=args[1];
+
+		GridLayout layout=null;
+		if(inputFile.endsWith(".bin"))
+			layout=IO.loadInputFromBinary(inputFile);
+		else if(inputFile.endsWith(".json") || inputFile.endsWith(".json.gz"))
+			layout=IO.loadCompactInputFromJSON(inputFile);
+		else if(inputFile.endsWith(".off"))
+			layout=IO.loadCompactInputFromOFF(inputFile, 1, true); // planar initial layout (Schnyder drawing of the faces)
+		else if(inputFile.endsWith(".edges"))
+			layout=IO.loadInputFromEdges(inputFile, 1);
+		else {
+			System.out.println("Error: wrong input format");
+			System.out.println("Supported input formats: JSON, OFF, EDGES and binary (.bin)");
+			System.exit(0);
+		}
+
+		if(outputFile.endsWith(".bin"))
+			IO.saveLayoutToBinary(layout, outputFile);
+		else if(outputFile.endsWith(".json") || outputFile.endsWith(".json.gz"))
+			IO.saveLayoutToJSON(layout, outputFile);
+		else {
+			System.out.println("Error: wrong output format");
+			System.out.println("Supported output formats: JSON and binary (.bin)");
+			System.exit(0);
+		}
+	}
+
+}
@@ -0,0 +1,175 @@
+import jdg.graph.CSRGraph;
+
+/**
+ * Maintain the edge-length ratio of a grid layout under local moves (of vertices and bends). <br>
+ * <br>
+ * The lengths of the edges are stored in two indexed binary heaps (a min-heap and a max-heap):
+ * when a point is moved only the lengths of the edges incident to it are updated, in O(log m) time per edge. <br>
+ * <br>
+ * Remark: the length of an edge is the sum of the lengths of the segments of its polyline.
+ * Squared segment lengths are computed exactly (with <tt>long</tt> arithmetic), so that the length of a straight-line
+ * edge is the square root of an exact integer.
+ */
+public class EdgeLengthTracker {
+	/** the layout */
+	public GridLayout layout;
+	/** current length of each edge */
+	public double[] length;
+
+	/** heap storing the edges with the smallest length at the root */
+	private IndexedHeap minHeap;
+	/** heap storing the edges with the largest length at the root */
+	private IndexedHeap maxHeap;
+
+	/**
+	 * Compute the lengths of all edges, in O(m) time
+	 */
+	public EdgeLengthTracker(GridLayout layout) {
+		this.layout=layout;
+		this.length=new double[layout.e];
+		for(int j=0;j<layout.e;j++)
+			this.length[j]=edgeLength(layout, j);
+		this.minHeap=new IndexedHeap(this.length, 1);
+		this.maxHeap=new IndexedHeap(this.length, -1);
+	}
+
+	/**
+	 * Compute the length of the polyline representing the 'j'-th edge
+	 */
+	public static double edgeLength(GridLayout layout, int j) {
+		GridPoint previous=layout.points[layout.csr.edgeSource(j)];
+		double result=0.;
+		if(layout.bendPoints!=null && layout.bendPoints[j]!=null) {
+			for(GridPoint b: layout.bendPoints[j]) {
+				result=result+Math.sqrt((double)previous.squareEuclideanDistance(b));
+				previous=b;
+			}
+		}
+		GridPoint last=layout.points[layout.csr.edgeTarget(j)];
+		return result+Math.sqrt((double)previous.squareEuclideanDistance(last));
+	}
+
+	/**
+	 * Return the length of the shortest edge
+	 */
+	public double minLength() {
+		return this.length[this.minHeap.top()];
+	}
+
+	/**
+	 * Return the length of the longest edge
+	 */
+	public double maxLength() {
+		return this.length[this.maxHeap.top()];
+	}
+
+	/**
+	 * Return the edge-length ratio: the ratio between the largest and the smallest edge
+	 * (infinity if there is an edge of length 0)
+	 */
+	public double ratio() {
+		if(this.layout.e==0)
+			return 1.;
+		double min=this.minLength();
+		if(min==0.)
+			return Double.POSITIVE_INFINITY;
+		return this.maxLength()/min;
+	}
+
+	/**
+	 * Update the length of the 'j'-th edge (after one of its points has been moved), in O(log m) time
+	 */
+	public void updateEdge(int j) {
+		this.length[j]=edgeLength(this.layout, j);
+		this.minHeap.update(j);
+		this.maxHeap.update(j);
+	}
+
+	/**
+	 * Update the lengths of the edges incident to the vertex 'v' (after 'v' has been moved)
+	 *
+	 * @return the new edge-length ratio
+	 */
+	public double updateVertex(int v) {
+		CSRGraph csr=this.layout.csr;
+		for(int k=csr.offsets[v];k<csr.offsets[v+1];k++)
+			this.updateEdge(csr.edgeIds[k]);
+		return this.ratio();
+	}
+
+	/**
+	 * A binary heap storing the indices 0..m-1, ordered according to their keys (multiplied by 'sign'). <br>
+	 * The position of each index in the heap is stored, so that the key of any index can be updated.
+	 */
+	private static class IndexedHeap {
+		/** the keys (shared with the tracker) */
+		double[] keys;
+		/** 1 for a min-heap, -1 for a max-heap */
+		int sign;
+		/** the heap (an array of indices) */
+		int[] heap;
+		/** the position of each index in the heap */
+		int[] position;
+
+		IndexedHeap(double[] keys, int sign) {
+			this.keys=keys;
+			this.sign=sign;
+			this.heap=new int[keys.length];
+			this.position=new int[keys.length];
+			for(int i=0;i<keys.length;i++) {
+				this.heap[i]=i;
+				this.position[i]=i;
+			}
+			for(int i=keys.length/2-1;i>=0;i--) // heapify in linear time
+				this.siftDown(i);
+		}
+
+		int top() {
+			return this.heap[0];
+		}
+
+		/** says whether the index 'a' must be above the index 'b' */
+		private boolean before(int a, int b) {
+			return this.sign*this.keys[a]<this.sign*this.keys[b];
+		}
+
+		void update(int j) {
+			int i=this.position[j];
+			this.siftUp(i);
+			this.siftDown(this.position[j]);
+		}
+
+		private void siftUp(int i) {
+			int j=this.heap[i];
+			while(i>0) {
+				int parent=(i-1)/2;
+				if(this.before(j, this.heap[parent])==false)
+					break;
+				this.place(this.heap[parent], i);
+				i=parent;
+			}
+			this.place(j, i);
+		}
+
+		private void siftDown(int i) {
+			int j=this.heap[i];
+			int size=this.heap.length;
+			while(2*i+1<size) {
+				int child=2*i+1;
+				if(child+1<size && this.before(this.heap[child+1], this.heap[child]))
+					child++;
+				if(this.before(this.heap[child], j)==false)
+					break;
+				this.place(this.heap[child], i);
+				i=child;
+			}
+			this.place(j, i);
+		}
+
+		private void place(int j, int i) {
+			this.heap[i]=j;
+			this.position[j]=i;
+		}
+	}
+
+}
@@ -28,6 +28,7 @@ public class GraphViewer extends PApplet {
 			+ "press 'r' to run your algorithm\n"
 			+ "press 'v' to check the validity of the layout\n"
 			+ "press 'e' to evaluate the edge length ratio\n"
+			+ "press 's' to compute a Schnyder layout (planar graphs)\n"
 			+ "use 'right mouse button' to drag the layout (press right button, move the mouse and release)";
 
 
@@ -72,7 +73,8 @@ public class GraphViewer extends PApplet {
 		case('-'): this.cellSize=Math.max(4, this.cellSize-1); break;
 		case('r'): this.algo.run(); break;
 		case('v'): this.layout.isValid(); break;
-		case('e'): this.layout.computeEdgeLengthRatio(); break;
+		case('e'): System.out.println("Edge-length ratio: "+this.layout.computeEdgeLengthRatio()); break;
+		case('s'): SchnyderLayout.setLayout(this.layout); break;
 		}
 	}
 
@@ -226,35 +228,30 @@ public class GraphViewer extends PApplet {
 	 * Draw a grid layout of the graph
 	 */
 	public void drawLayout(GridLayout drawing) {
-		if(drawing==null || drawing.g==null)
+		if(drawing==null || drawing.csr==null)
 			return;
 		
 		// draw the edges
-		for(Node u: drawing.g.nodes) { // iterate over all nodes
-			for(Node v: u.neighbors) { // iterate over the neighbors of node 'u'
-				if(u.index<v.index) { // draw edges only once
-					int edgeIndex=this.layout.g.getEdgeIndex(u, v);
-					GridPoint pU=drawing.points[u.index]; // coordinates of 'u'
-					GridPoint pV=drawing.points[v.index]; // coordinates of 'v'
-					if(drawing.bendPoints[edgeIndex]==null) // the edge (u, v) has no bends
-						this.drawSegment(pU.getX(), pU.getY(), pV.getX(), pV.getY()); // draw (u, v) with a straight-line segment
-					else { // the edge (u, v) has bends
-						int nBends=drawing.bendPoints[edgeIndex].length; // number of bends of the edge (u, v)
-						GridPoint firstBend=drawing.bendPoints[edgeIndex][0];
-						GridPoint lastBend=drawing.bendPoints[edgeIndex][nBends-1];
-						
-						this.drawSegment(pU.getX(), pU.getY(), firstBend.getX(), firstBend.getY()); // draw first bend
-						this.drawBlackPoint(firstBend.getX(), firstBend.getY());
-						for(int k=0;k<nBends-1;k++) { // draw all intermediate bends
-							GridPoint b1=drawing.bendPoints[edgeIndex][k];
-							GridPoint b2=drawing.bendPoints[edgeIndex][k+1];
-							this.drawSegment(b1.getX(), b1.getY(), b2.getX(), b2.getY()); // draw first bend
-							this.drawBlackPoint(b1.getX(), b1.getY());
-						}
-						this.drawSegment(lastBend.getX(), lastBend.getY(), pV.getX(), pV.getY()); // draw last bend
-						this.drawBlackPoint(lastBend.getX(), lastBend.getY());
-					}
+		for(int edgeIndex=0;edgeIndex<drawing.e;edgeIndex++) { // iterate over all edges (u, v), with u<v
+			GridPoint pU=drawing.points[drawing.csr.edgeSource(edgeIndex)]; // coordinates of 'u'
+			GridPoint pV=drawing.points[drawing.csr.edgeTarget(edgeIndex)]; // coordinates of 'v'
+			if(drawing.bendPoints[edgeIndex]==null) // the edge (u, v) has no bends
+				this.drawSegment(pU.getX(), pU.getY(), pV.getX(), pV.getY()); // draw (u, v) with a straight-line segment
+			else { // the edge (u, v) has bends
+				int nBends=drawing.bendPoints[edgeIndex].length; // number of bends of the edge (u, v)
+				GridPoint firstBend=drawing.bendPoints[edgeIndex][0];
+				GridPoint lastBend=drawing.bendPoints[edgeIndex][nBends-1];
+				
+				this.drawSegment(pU.getX(), pU.getY(), firstBend.getX(), firstBend.getY()); // draw first bend
+				this.drawBlackPoint(firstBend.getX(), firstBend.getY());
+				for(int k=0;k<nBends-1;k++) { // draw all intermediate bends
+					GridPoint b1=drawing.bendPoints[edgeIndex][k];
+					GridPoint b2=drawing.bendPoints[edgeIndex][k+1];
+					this.drawSegment(b1.getX(), b1.getY(), b2.getX(), b2.getY()); // draw first bend
+					this.drawBlackPoint(b1.getX(), b1.getY());
 				}
+				this.drawSegment(lastBend.getX(), lastBend.getY(), pV.getX(), pV.getY()); // draw last bend
+				this.drawBlackPoint(lastBend.getX(), lastBend.getY());
 			}
 		}
 		// draw the vertices
@@ -340,7 +337,7 @@ public class GraphViewer extends PApplet {
 	public static void main(String[] args) {
 		System.out.println("Tools for the \"Graph Drawing Contest 2021: Live Challenge\"");
 		if(args.length<1) {
-			System.out.println("Error: one argument required: input file in JSON or OFF format");
+			System.out.println("Error: one argument required: input file in JSON, OFF, EDGES or binary format");
 			System.exit(0);
 		}
 
@@ -355,11 +352,17 @@ public class GraphViewer extends PApplet {
 			layout=IO.loadInputFromJSON(inputFile); // read the input Json file (problem instance)
 		}
 		else if(inputFile.endsWith(".off")==true) {
-			layout=IO.loadInputFromOFF(inputFile, 1, false);
+			layout=IO.loadCompactInputFromOFF(inputFile, 1, true); // vertices are placed according to a Schnyder drawing of the faces
+		}
+		else if(inputFile.endsWith(".bin")==true) {
+			layout=IO.loadInputFromBinary(inputFile);
+		}
+		else if(inputFile.endsWith(".edges")==true) {
+			layout=IO.loadInputFromEdges(inputFile, 1);
 		}
 		else {
 			System.out.println("Error: wrong input format");
-			System.out.println("Supported input format: JSON format");
+			System.out.println("Supported input formats: JSON, OFF, EDGES and binary (.bin)");
 			System.exit(0);
 		}
 
@@ -0,0 +1,79 @@
+
+/**
+ * Exact geometric predicates for points and segments on the integer grid. <br>
+ * <br>
+ * Remark: computations are performed with <tt>long</tt> arithmetic and are exact as long as the
+ * coordinates lie in the range [0..2^31-1] (this is the case for points within the bounds of a grid layout):
+ * coordinate differences fit in 32 bits, and the difference of two products fits in 63 bits.
+ */
+public class GridGeometry {
+
+	/**
+	 * Return the orientation of the triple (a, b, c): <br>
+	 * 1 if (a, b, c) is a left turn (ccw), -1 if it is a right turn (cw), 0 if the three points are collinear
+	 */
+	public static int orientation(long ax, long ay, long bx, long by, long cx, long cy) {
+		long det=(bx-ax)*(cy-ay)-(by-ay)*(cx-ax);
+		return Long.signum(det);
+	}
+
+	/**
+	 * Check whether the point c lies on the closed segment [a, b], assuming that (a, b, c) are collinear
+	 */
+	public static boolean inBox(long ax, long ay, long bx, long by, long cx, long cy) {
+		return Math.min(ax, bx)<=cx && cx<=Math.max(ax, bx) && Math.min(ay, by)<=cy && cy<=Math.max(ay, by);
+	}
+
+	/**
+	 * Check whether two closed segments [a, b] and [c, d] have at least one common point
+	 */
+	public static boolean segmentsIntersect(long ax, long ay, long bx, long by, long cx, long cy, long dx, long dy) {
+		int o1=orientation(ax, ay, bx, by, cx, cy);
+		int o2=orientation(ax, ay, bx, by, dx, dy);
+		int o3=orientation(cx, cy, dx, dy, ax, ay);
+		int o4=orientation(cx, cy, dx, dy, bx, by);
+
+		if(o1*o2<0 && o3*o4<0) // proper crossing
+			return true;
+		if(o1==0 && inBox(ax, ay, bx, by, cx, cy))
+			return true;
+		if(o2==0 && inBox(ax, ay, bx, by, dx, dy))
+			return true;
+		if(o3==0 && inBox(cx, cy, dx, dy, ax, ay))
+			return true;
+		if(o4==0 && inBox(cx, cy, dx, dy, bx, by))
+			return true;
+		return false;
+	}
+
+	/**
+	 * Check whether two segments [p, a] and [p, b] sharing the extremity 'p' overlap
+	 * (they are collinear and have the same direction): otherwise 'p' is their only common point
+	 */
+	public static boolean overlapAtCommonPoint(long px, long py, long ax, long ay, long bx, long by) {
+		if(orientation(px, py, ax, ay, bx, by)!=0)
+			return false;
+		return (ax-px)*(bx-px)+(ay-py)*(by-py)>0; // same direction
+	}
+
+	/**
+	 * Check whether two segments [a, b] and [c, d] of a drawing are in conflict: they must not have common points,
+	 * except a common extremity representing the same vertex (or bend). <br>
+	 * <br>
+	 * Extremities are identified by an integer: segments sharing an extremity with the same identifier
+	 * are allowed to meet at that point (but not to overlap).
+	 */
+	public static boolean inConflict(long ax, long ay, long bx, long by, int idA, int idB,
+			long cx, long cy, long dx, long dy, int idC, int idD) {
+		if(idA==idC)
+			return overlapAtCommonPoint(ax, ay, bx, by, dx, dy);
+		if(idA==idD)
+			return overlapAtCommonPoint(ax, ay, bx, by, cx, cy);
+		if(idB==idC)
+			return overlapAtCommonPoint(bx, by, ax, ay, dx, dy);
+		if(idB==idD)
+			return overlapAtCommonPoint(bx, by, ax, ay, cx, cy);
+		return segmentsIntersect(ax, ay, bx, by, cx, cy, dx, dy);
+	}
+
+}
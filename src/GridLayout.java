@@ -1,6 +1,7 @@
 import Jcg.geometry.Point_3;
 import Jcg.polyhedron.Polyhedron_3;
 import jdg.graph.AdjacencyListGraph;
+import jdg.graph.CSRGraph;
 
 /**
  * Planar Grid Layout of a graph: vertices are drawn as 2D points with integer coordinates (on a regular grid of size wxh). <br>
@@ -28,6 +29,11 @@ public class GridLayout {
 
 	/** Input graph to draw: no combinatorial embedding provided (only the 1-skeleton of the graph) */	
 	public AdjacencyListGraph g;
+	/** 
+	 * Compact (CSR) representation of the input graph: it is always defined, and provides the edge indexing. <br>
+	 * Remark: when the layout is loaded in compact form, the pointer based graph <tt>g</tt> is not defined (<tt>g=null</tt>)
+	 * */
+	public CSRGraph csr;
 
 	/** 
 	 * 2D positions of the vertices of the graph defining the planar layout. <br>
@@ -40,10 +46,22 @@ public class GridLayout {
 	 * <tt>bendPoints[j]=null</tt> if the 'j'-th edge has no bends <br>
 	 * <br>
 	 * Remark: given the 'j'-th edge (u, v), bendPoints[j] is an array storing the bend points
-	 * [b0, b1, b2, ..., b_k], where b1 is the first bend point (close to 'u') and b_k is the last bend point (close to 'v')
+	 * [b0, b1, b2, ..., b_k], where b1 is the first bend point (close to 'u') and b_k is the last bend point (close to 'v') <br>
+	 * Edges are indexed as in <tt>csr</tt>: the 'j'-th edge is (u, v)=(csr.edgeSource(j), csr.edgeTarget(j)), with u&lt;v
 	 * */
 	public GridPoint[][] bendPoints;
 
+	/** 
+	 * Spatial index storing the segments of the layout, used for testing local moves (built on demand). <br>
+	 * Remark: in order to keep it up to date, vertices and bends must be moved with <tt>moveVertex()</tt> and <tt>moveBend()</tt>
+	 * */
+	public SegmentGrid spatialIndex=null;
+	/** 
+	 * Lengths of the edges, maintained under local moves (built on demand). <br>
+	 * Remark: it is kept up to date by <tt>moveVertex()</tt> and <tt>moveBend()</tt>
+	 * */
+	public EdgeLengthTracker lengthTracker=null;
+
 	/**
 	 * Initialize the grid layout
 	 * 
@@ -55,10 +73,58 @@ public class GridLayout {
 	 * @param maxBends	maximal number of bends per edge
 	 **/	
 	public GridLayout(String name, AdjacencyListGraph g, GridPoint[] points, GridPoint[][] bends, int maxBends, int width, int height) {
-		this.name=name;
+		this(name, g, new int[g.edges.size()], points, bends, maxBends, width, height);
+	}
+
+	/**
+	 * Initialize the grid layout: the bends (indexed as the edges of <tt>g</tt>) are stored according to the indices of the CSR graph
+	 * (the arguments are evaluated from left to right, so 'translation' is filled before the bends are remapped)
+	 **/
+	private GridLayout(String name, AdjacencyListGraph g, int[] translation, GridPoint[] points, GridPoint[][] bends, int maxBends, int width, int height) {
+		this(name, CSRGraph.fromGraph(g, translation), points, remapBends(bends, translation), maxBends, width, height);
 		this.g=g;
-		this.n=g.sizeVertices();
-		this.e=g.sizeEdges();
+	}
+
+	/**
+	 * Return the bends indexed according to the translation of the edge indices (the same array, if no edge has been removed)
+	 */
+	private static GridPoint[][] remapBends(GridPoint[][] bends, int[] translation) {
+		if(bends==null)
+			return null;
+		boolean identity=true;
+		for(int i=0;i<translation.length;i++) {
+			if(translation[i]!=i)
+				identity=false;
+		}
+		if(identity==true)
+			return bends;
+		int m=0;
+		for(int i=0;i<translation.length;i++)
+			m=Math.max(m, translation[i]+1);
+		GridPoint[][] result=new GridPoint[m][];
+		for(int i=0;i<translation.length && i<bends.length;i++) {
+			if(translation[i]>=0)
+				result[translation[i]]=bends[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Initialize the grid layout of a graph stored in compact (CSR) form: the pointer based graph <tt>g</tt> is not built
+	 * 
+	 * @param csr  	 	the input graph (no combinatorial embedding provided)
+	 * @param points 	an array storing, for each vertex, its coordinates (x, y)
+	 * @param bends  	an array storing, for each edge, the list of edge points (if any)
+	 * @param width  	width of the grid
+	 * @param height  	height of the grid
+	 * @param maxBends	maximal number of bends per edge
+	 **/	
+	public GridLayout(String name, CSRGraph csr, GridPoint[] points, GridPoint[][] bends, int maxBends, int width, int height) {
+		this.name=name;
+		this.g=null;
+		this.csr=csr;
+		this.n=csr.sizeVertices();
+		this.e=csr.sizeEdges();
 		this.points=points;
 		this.bendPoints=bends;
 		this.maxBends=maxBends;
@@ -66,26 +132,130 @@ public class GridLayout {
 		this.height=height;
 	}
 	
+	/**
+	 * Return a copy of the layout: vertex and bend coordinates are copied, while the input graph is shared. <br>
+	 * Remark: the spatial index and the edge lengths are not copied (they can be rebuilt on demand)
+	 **/
+	public GridLayout copy() {
+		GridPoint[] points=new GridPoint[this.n];
+		for(int v=0;v<this.n;v++)
+			points[v]=new GridPoint(this.points[v]);
+		GridPoint[][] bends=null;
+		if(this.bendPoints!=null) {
+			bends=new GridPoint[this.bendPoints.length][];
+			for(int j=0;j<bends.length;j++) {
+				if(this.bendPoints[j]==null)
+					continue;
+				bends[j]=new GridPoint[this.bendPoints[j].length];
+				for(int i=0;i<bends[j].length;i++)
+					bends[j][i]=new GridPoint(this.bendPoints[j][i]);
+			}
+		}
+		GridLayout result=new GridLayout(this.name, this.csr, points, bends, this.maxBends, this.width, this.height);
+		result.g=this.g;
+		return result;
+	}
+
 	/**
 	 * Check whether the current embedding of the graph do define a valid grid drawing with polylines. <br>
 	 * <br>
 	 * 1) the drawing should be planar (crossing-free): no pair of crossing edges
 	 * 2) the vertex coordinates should be within the prescribed bounds: on the rectangular grid [0,0]x[w,h]
-	 * 3) the number of bends per edge should not exceed the prescribed bound (input of the problem)
-	 **/	
+	 * 3) the number of bends per edge should not exceed the prescribed bound (input of the problem) <br>
+	 * <br>
+	 * Remark: planarity is tested with a sweep-line algorithm in O(N log N) time, for N segments (see <tt>PlanarityChecker</tt>)
+	 **/
 	public boolean isValid() {
-		// TO BE COMPLETED
-		System.out.println("--------\nTo be completed\n---------");
-		return false;
+		PlanarityChecker checker=new PlanarityChecker(this);
+		boolean result=checker.isValid();
+		if(result==true)
+			System.out.println("The layout is valid");
+		else
+			System.out.println("Invalid layout: "+checker.message);
+		return result;
 	}
 	
 	/**
-	 * Compute the edge-length ratio of the graph: the ratio between the largest and the smallest edge in the layout
+	 * Build the spatial index storing the segments of the layout (vertices and bends must lie on the grid)
+	 **/
+	public SegmentGrid buildSpatialIndex() {
+		this.spatialIndex=new SegmentGrid(this);
+		return this.spatialIndex;
+	}
+
+	/**
+	 * Check whether the vertex 'v' can be moved to (x, y): the new location must lie on the grid,
+	 * and the edges incident to 'v' must not cross other edges. <br>
+	 * Remark: the drawing is assumed to be valid before the move (the spatial index is built if necessary)
+	 **/
+	public boolean canMoveVertex(int v, int x, int y) {
+		if(this.spatialIndex==null)
+			this.buildSpatialIndex();
+		return this.spatialIndex.createsCrossingVertex(v, x, y)==false;
+	}
+
+	/**
+	 * Check whether the 'i'-th bend point of edge 'j' can be moved to (x, y), without creating crossings
+	 **/
+	public boolean canMoveBend(int j, int i, int x, int y) {
+		if(this.spatialIndex==null)
+			this.buildSpatialIndex();
+		return this.spatialIndex.createsCrossingBend(j, i, x, y)==false;
+	}
+
+	/**
+	 * Move the vertex 'v' to (x, y), updating the spatial index (if any). No check is performed
+	 **/
+	public void moveVertex(int v, int x, int y) {
+		if(this.spatialIndex!=null)
+			this.spatialIndex.moveVertex(v, x, y);
+		this.points[v].setX(x);
+		this.points[v].setY(y);
+		if(this.lengthTracker!=null)
+			this.lengthTracker.updateVertex(v);
+	}
+
+	/**
+	 * Move the 'i'-th bend point of edge 'j' to (x, y), updating the spatial index (if any). No check is performed
+	 **/
+	public void moveBend(int j, int i, int x, int y) {
+		if(this.spatialIndex!=null)
+			this.spatialIndex.moveBend(j, i, x, y);
+		this.bendPoints[j][i].setX(x);
+		this.bendPoints[j][i].setY(y);
+		if(this.lengthTracker!=null)
+			this.lengthTracker.updateEdge(j);
+	}
+
+	/**
+	 * Build the structure maintaining the lengths of the edges (under local moves), in O(m) time
+	 **/
+	public EdgeLengthTracker buildLengthTracker() {
+		this.lengthTracker=new EdgeLengthTracker(this);
+		return this.lengthTracker;
+	}
+
+	/**
+	 * Compute the edge-length ratio of the graph: the ratio between the largest and the smallest edge in the layout <br>
+	 * <br>
+	 * Remark: the length of an edge is the length of its polyline. It takes O(1) time if the lengths are maintained
+	 * by <tt>lengthTracker</tt>, and O(m) time otherwise
 	 **/	
 	public double computeEdgeLengthRatio() {
-		// TO BE COMPLETED
-		System.out.println("--------\nTo be completed\n---------");
-		return -1.;
+		if(this.lengthTracker!=null)
+			return this.lengthTracker.ratio();
+		if(this.e==0)
+			return 1.;
+
+		double min=Double.POSITIVE_INFINITY, max=0.;
+		for(int j=0;j<this.e;j++) {
+			double length=EdgeLengthTracker.edgeLength(this, j);
+			min=Math.min(min, length);
+			max=Math.max(max, length);
+		}
+		if(min==0.)
+			return Double.POSITIVE_INFINITY;
+		return max/min;
 	}
 
 	/**
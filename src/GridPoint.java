@@ -72,11 +72,12 @@ public class GridPoint {
     }
 
     /**
-     * Return the square of the Euclidean distance between the current point 'this' and a point 'p'
+     * Return the square of the Euclidean distance between the current point 'this' and a point 'p' <br>
+     * Remark: it is computed with <tt>long</tt> arithmetic (no overflow for points on the grid)
      */
-	public int squareEuclideanDistance(GridPoint p) {
-		int dX=p.x-x;
-		int dY=p.y-y;
+	public long squareEuclideanDistance(GridPoint p) {
+		long dX=(long)p.x-x;
+		long dY=(long)p.y-y;
 		return dX*dX+dY*dY;
 	}
 
@@ -1,18 +1,14 @@
 
 import java.awt.Color;
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
 
 import Jcg.geometry.Point_3;
-import Jcg.mesh.MeshLoader;
-import Jcg.polyhedron.Halfedge;
 import Jcg.polyhedron.Polyhedron_3;
 import jdg.graph.AdjacencyListGraph;
+import jdg.graph.CSRGraph;
 import jdg.graph.Node;
-import processing.data.JSONArray;
-import processing.data.JSONObject;
-import tc.TC;
+import jdg.io.GraphReader_EDGES;
+import jdg.io.GraphReader_OFF;
+import jdg.io.JSONInstanceReader;
 
 /**
  * This class provides methods for dealing with input/output for JSON files storing planar graphs
@@ -33,20 +29,15 @@ public class IO {
 		
 		String name=filename.replaceAll(".json", "");
 		System.out.print("Reading JSON input file: "+filename+"...");
-		JSONObject json;
-		
-		json = readJSON(filename);
+		JSONInstanceReader json=new JSONInstanceReader(filename); // streaming parser: no JSON object tree is built
 		System.out.println("ok");
 		
-		int width = json.getInt("width");
-		int height = json.getInt("height");
-		int nBends = json.getInt("bends");
-		
-		JSONArray nodes = json.getJSONArray("nodes");
-		JSONArray edges = json.getJSONArray("edges");
+		int width = json.width;
+		int height = json.height;
+		int nBends = json.maxBends;
 		
-		int n=nodes.size();
-		int e=edges.size();
+		int n=json.n;
+		int e=json.e;
 		
 		System.out.println("\t name= "+name);
 		System.out.println("\t n= "+n);
@@ -56,46 +47,31 @@ public class IO {
 		System.out.print("Reading vertices...");
 		points=new GridPoint[n];
 		for(int i=0;i<n;i++) {
-			JSONObject coordinates=nodes.getJSONObject(i);
-			int id=coordinates.getInt("id");
-			int x=coordinates.getInt("x");
-			int y=coordinates.getInt("y");
-			points[i]=new GridPoint(x, y);
+			points[i]=new GridPoint(json.x[i], json.y[i]);
 			
     		Color color=null; // no color defined for this application
-    		g.addNode(new Node(id, color));
-			//System.out.println("point "+id+" "+points[i]);
+    		g.addNode(new Node(json.ids[i], color));
 		}
 		System.out.println("done");
 
 		System.out.print("Reading edges...");
 		bendPoints=new GridPoint[e][];
 		for(int i=0;i<e;i++) {
-			JSONObject edge=edges.getJSONObject(i);
-			int index1=edge.getInt("source");
-			int index2=edge.getInt("target");
-			JSONArray bends=edge.getJSONArray("bends");
+			int index1=json.source[i];
+			int index2=json.target[i];
 			Node v1=g.getNode(index1);
 			Node v2=g.getNode(index2);
 
 			if(v1==null || v2==null) {
 				throw new Error("Error: wrong vertex indices "+index1+" "+index2);
 			}
-			if(v1!=v2 && g.adjacent(v1, v2)==false && g.adjacent(v2, v1)==false) { // loops and multiple edges are not allowed
+			if(v1!=v2 && g.getEdgeIndex(index1, index2)<0) { // loops and multiple edges are not allowed (constant time test)
 				g.addEdge(v1, v2); // addEdge already adds the two edges (v1, v2) and (v2, v1)
-				if(bends!=null) {
-					int edgeIndex=g.getEdgeIndex(v1, v2);
-					//System.out.println("edge "+i+" "+bends.size()+" bends");
-					bendPoints[i]=new GridPoint[bends.size()];
-					for(int j=0;j<bends.size();j++) {
-						JSONObject bendPoint=bends.getJSONObject(j);
-						int x=bendPoint.getInt("x");
-						int y=bendPoint.getInt("y");
-						bendPoints[i][j]=new GridPoint(x, y);
-					}
-				}
+				int edgeIndex=g.getEdgeIndex(index1, index2);
+				if(json.hasBends[i]==true)
+					bendPoints[edgeIndex]=getBends(json, i);
 				else // no bends defined for this edge
-					bendPoints[i]=null;
+					bendPoints[edgeIndex]=null;
 			}
     	}
     	System.out.println("done");
@@ -107,10 +83,68 @@ public class IO {
 		return result;
 	}
 	
+	/**
+	 * Load an input instance from an input JSON file, storing the graph in compact form (CSR representation) <br>
+	 * <br>
+	 * Remark: the pointer based graph is not built (<tt>layout.g=null</tt>), which is convenient for large graphs
+	 * 
+	 * @param filename  name of the file storing the input instance
+	 */
+	public static GridLayout loadCompactInputFromJSON(String filename){
+		String name=filename.replaceAll(".json", "");
+		System.out.print("Reading JSON input file: "+filename+"...");
+		JSONInstanceReader json=new JSONInstanceReader(filename); // streaming parser: no JSON object tree is built
+		System.out.println("ok");
+		int n=json.n;
+		int e=json.e;
+		
+		System.out.print("Reading vertices...");
+		GridPoint[] points=new GridPoint[n];
+		for(int i=0;i<n;i++) {
+			int id=json.ids[i];
+			if(id<0 || id>=n)
+				throw new Error("Error: wrong vertex index "+id);
+			points[id]=new GridPoint(json.x[i], json.y[i]);
+		}
+		System.out.println("done");
+
+		System.out.print("Reading edges...");
+		int[] src=json.source;
+		int[] dst=json.target;
+		CSRGraph csr=CSRGraph.fromEdges(n, src, dst, e); // loops and multiple edges are discarded
+		
+		GridPoint[][] bendPoints=new GridPoint[csr.sizeEdges()][];
+		for(int i=0;i<e;i++) {
+			int edgeIndex=csr.getEdgeIndex(src[i], dst[i]);
+			if(json.hasBends[i]==true && edgeIndex>=0 && bendPoints[edgeIndex]==null)
+				bendPoints[edgeIndex]=getBends(json, i);
+		}
+    	System.out.println("done");
+
+		System.out.println("Input instance loaded from file\n------------------");
+		System.out.println(csr.sizeVertices()+" vertices, "+csr.sizeEdges()+" edges");
+		
+		return new GridLayout(name, csr, points, bendPoints, json.maxBends, json.width, json.height);
+	}
+
+	/**
+	 * Return the bend points of the 'i'-th edge of a JSON instance, stored starting from the extremity of smaller index
+	 */
+	private static GridPoint[] getBends(JSONInstanceReader json, int i) {
+		int size=json.bendCount(i);
+		GridPoint[] result=new GridPoint[size];
+		for(int j=0;j<size;j++) {
+			int k=(json.source[i]<json.target[i]) ? j : size-1-j; // bends are stored starting from the extremity of smaller index
+			result[k]=new GridPoint(json.bendX[json.bendOffsets[i]+j], json.bendY[json.bendOffsets[i]+j]);
+		}
+		return result;
+	}
+	
 	/**
 	 * Load an input instance (the input planar graph) from an input OFF file storing a planar mesh <br>
 	 * 
-	 * Remark: bends are not defined when loading the graph from OFF file
+	 * Remark: bends are not defined when loading the graph from OFF file. The graph is read directly from the faces, and stored
+	 * in compact form (see <tt>loadCompactInputFromOFF()</tt>): vertices are set at the origin
 	 * 
 	 * @param filename  name of OFF file storing a planar mesh
 	 * @param maxBends  maximal number of bends per edge
@@ -118,159 +152,151 @@ public class IO {
 	 * otherwise do not load geometric coordinates
 	 */
 	public static GridLayout loadInputFromOFF(String filename, int maxBends, boolean useCoordinates){
-		GridPoint[][] bendPoints=null;
-		GridPoint[] points=null;
-		AdjacencyListGraph g=new AdjacencyListGraph();
-		
+		return loadCompactInputFromOFF(filename, maxBends, false);
+	}
+
+	/**
+	 * Load an input instance from an input OFF file storing a planar mesh. The graph is stored in compact form (CSR representation),
+	 * and vertices are set at the origin <br>
+	 * 
+	 * Remark: the pointer based graph is not built (<tt>layout.g=null</tt>)
+	 * 
+	 * @param filename  name of OFF file storing a planar mesh
+	 * @param maxBends  maximal number of bends per edge
+	 */
+	public static GridLayout loadCompactInputFromOFF(String filename, int maxBends){
+		return loadCompactInputFromOFF(filename, maxBends, false);
+	}
+
+	/**
+	 * Load an input instance from an input OFF file storing a planar mesh. The graph is stored in compact form (CSR representation) <br>
+	 * 
+	 * Remark: the graph is read directly from the faces (see <tt>GraphReader_OFF</tt>), without building a mesh. If 'schnyderLayout' is
+	 * true, the faces are also kept, and vertices are placed according to a Schnyder drawing of the mesh they define (a planar layout):
+	 * this step builds a mesh (<tt>Polyhedron_3</tt>) and a Schnyder wood, and is not performed otherwise (vertices are set at the origin)
+	 * 
+	 * @param filename  name of OFF file storing a planar mesh
+	 * @param maxBends  maximal number of bends per edge
+	 * @param schnyderLayout  compute a planar initial layout (if TRUE)
+	 */
+	public static GridLayout loadCompactInputFromOFF(String filename, int maxBends, boolean schnyderLayout){
 		String name=filename.replaceAll(".off", "");
 		System.out.println("Reading OFF input file: "+filename+"...");
-		Polyhedron_3<Point_3> mesh=MeshLoader.getSurfaceMesh(filename);
-		
-		int n=mesh.sizeOfVertices();
-		int e=mesh.sizeOfHalfedges()/2;
+		GraphReader_OFF off=null;
+		CSRGraph csr;
+		if(schnyderLayout==true) {
+			off=GraphReader_OFF.readGraphAndFaces(filename);
+			csr=off.graph;
+		}
+		else
+			csr=GraphReader_OFF.readCSR(filename);
 		
+		int n=csr.sizeVertices();
 		int width = n*4;
 		int height = width;
-		int nBends = maxBends;
 		
-		System.out.println("\t name= "+name);
-		System.out.println("\t n= "+n);
-		System.out.println("\t e= "+e);
-		System.out.println("\t bends= "+nBends);
+		GridPoint[] points=new GridPoint[n];
+		for(int i=0;i<n;i++)
+			points[i]=new GridPoint(0, 0);
+
+		System.out.println("Input instance loaded from file\n------------------");
+		System.out.println(csr.sizeVertices()+" vertices, "+csr.sizeEdges()+" edges");
 		
-		System.out.print("Setting vertices...");
-		points=new GridPoint[n];
-		int x, y, id;
-		for(int i=0;i<n;i++) {
-			id=i;
-			x=0;
-			y=0;
-			points[i]=new GridPoint(x, y);
-			
-    		Color color=null; // no color defined for this application
-    		g.addNode(new Node(id, color));
-			//System.out.println("point "+id+" "+points[i]);
-		}
-		System.out.println("done");
+		GridLayout layout=new GridLayout(name, csr, points, new GridPoint[csr.sizeEdges()][], maxBends, width, height);
+		if(schnyderLayout==true)
+			setPlanarLayout(layout, off);
+		return layout;
+	}
 
-		System.out.print("Setting edges...");
-		bendPoints=new GridPoint[e][];
-		for(Halfedge h: mesh.halfedges) { // iterate over all half-edges
-			int index1=h.getOpposite().getVertex().index;
-			int index2=h.getVertex().index;
-			Node v1=g.getNode(index1);
-			Node v2=g.getNode(index2);
+	/**
+	 * Set a planar initial layout from the faces of an OFF file: the Schnyder drawing is computed on the mesh given by the faces,
+	 * which already provide a planar embedding. If the faces do not define a connected planar mesh, the embedding of the graph is
+	 * computed as for the other input formats
+	 */
+	private static void setPlanarLayout(GridLayout layout, GraphReader_OFF off) {
+		Polyhedron_3<Point_3> mesh=(layout.n>=3) ? SchnyderLayout.createPlanarMesh(layout.n, off.nFaces, off.faceOffsets, off.faceVertices) : null;
+		if(mesh!=null)
+			SchnyderLayout.setLayout(layout, mesh);
+		else
+			setPlanarLayout(layout);
+	}
 
-			if(v1==null || v2==null) {
-				throw new Error("Error: wrong vertex indices "+index1+" "+index2);
-			}
-			if(index1<index2 && g.adjacent(v1, v2)==false && g.adjacent(v2, v1)==false) { // loops and multiple edges are not allowed
-				g.addEdge(v1, v2); // addEdge already adds the two edges (v1, v2) and (v2, v1)
-				int edgeIndex=g.getEdgeIndex(v1, v2);
-				bendPoints[edgeIndex]=null; // bends are not defined
-			}
-    	}
-    	System.out.println("done");
+	/**
+	 * If the graph is planar, set a planar initial layout (Schnyder drawing of a planar embedding, computed in linear time)
+	 */
+	private static void setPlanarLayout(GridLayout layout) {
+		Polyhedron_3<Point_3> mesh=(layout.n>=3) ? SchnyderLayout.computePlanarMesh(layout.csr) : null;
+		if(mesh!=null)
+			SchnyderLayout.setLayout(layout, mesh);
+	}
+
+	/**
+	 * Load an input instance from an edge list (.edges format), storing the graph in compact form (CSR representation) <br>
+	 * 
+	 * Remark: bends are not defined, and the grid has size (4n)x(4n). If the graph is planar, vertices are placed according
+	 * to a Schnyder drawing of a planar embedding (a planar layout); otherwise they are set at the origin
+	 * 
+	 * @param filename  name of the file storing the edge list
+	 * @param maxBends  maximal number of bends per edge
+	 */
+	public static GridLayout loadInputFromEdges(String filename, int maxBends){
+		String name=filename.replaceAll(".edges", "");
+		CSRGraph csr=GraphReader_EDGES.readCSR(filename);
+		
+		int n=csr.sizeVertices();
+		int width = n*4;
+		int height = width;
+		GridPoint[] points=new GridPoint[n];
+		for(int i=0;i<n;i++)
+			points[i]=new GridPoint(0, 0);
 
 		System.out.println("Input instance loaded from file\n------------------");
-		System.out.println(g.sizeVertices()+" vertices, "+g.sizeEdges()+" edges");
+		System.out.println(csr.sizeVertices()+" vertices, "+csr.sizeEdges()+" edges");
 		
-		return new GridLayout(name, g, points, bendPoints, nBends, width, height);
+		GridLayout layout=new GridLayout(name, csr, points, new GridPoint[csr.sizeEdges()][], maxBends, width, height);
+		setPlanarLayout(layout);
+		return layout;
 	}
 
 	/**
-	 * Load a JSON object from input file
+	 * Load a layout stored in binary format (see <tt>BinaryLayout</tt>): the file is mapped in memory, and the graph is
+	 * stored in compact form (<tt>layout.g=null</tt>)
 	 * 
-	 * @param filename name of the input file
+	 * @param filename  name of the file storing the layout
 	 */
-	private static JSONObject readJSON(String filename) {
-		JSONObject outgoing=null;
-		BufferedReader reader = null;
-		FileReader fr = null;
-
-		try {
-			fr = new FileReader(filename);
-			reader = new BufferedReader(fr);
-			outgoing = new JSONObject(reader);
-		} catch (IOException e) {
-			System.err.format("IOException: %s%n", e);
-		} finally {
-			try {
-				if (reader != null)
-					reader.close();
+	public static GridLayout loadInputFromBinary(String filename){
+		System.out.print("Reading binary input file: "+filename+"...");
+		long startTime=System.nanoTime();
+		GridLayout layout=new BinaryLayout(filename).toGridLayout();
+		double time=(System.nanoTime()-startTime)/1000000.;
+		System.out.println("done ("+time+" ms)");
+		System.out.println("Input instance loaded from file\n------------------");
+		System.out.println(layout.n+" vertices, "+layout.e+" edges");
+		return layout;
+	}
 
-				if (fr != null)
-					fr.close();
-			} catch (IOException ex) {
-				System.err.format("IOException: %s%n", ex);
-			}
-		}
-		
-		return outgoing;
+	/**
+	 * Save a grid layout in binary format (see <tt>BinaryLayout</tt>)
+	 */
+	public static void saveLayoutToBinary(GridLayout layout, String output) {
+		System.out.print("Saving the grid layout to binary file: "+output+" ...");
+		long startTime=System.nanoTime();
+		BinaryLayout.write(layout, output);
+		double time=(System.nanoTime()-startTime)/1000000.;
+		System.out.println("done ("+layout.n+" vertices, "+layout.e+" edges, "+time+" ms)");
 	}
 
     /**
-     * Output a grid layout of a planar graph (with polylines) to a JSON file
+     * Output a grid layout of a planar graph (with polylines) to a JSON file <br>
      * 
+     * Remark: the output is compressed (gzip format) if the name of the file ends with ".gz"
      */		   
     public static void saveLayoutToJSON(GridLayout layout, String output) {
     	System.out.print("Saving the grid layout of a planar graph to Json file: "+output+" ...");
-    	
-    	TC.ecritureDansNouveauFichier(output);
-    	
-    	int n=layout.n;
-    	int nE=layout.e; // number of arcs
-    	
-    	TC.println("{"); // first line
-    	
-    	// write nodes
-    	TC.println("    \"nodes\": [");
-    	int i=0;
-    	for(Node u: layout.g.nodes) {
-    		GridPoint p=layout.points[u.index];
-    		TC.println("\t{"); // start encoding a new node
-    		TC.println("\t    \"id\": "+u.index+",");
-    		TC.println("\t    \"x\": "+p.getX()+",");
-    		TC.println("\t    \"y\": "+p.getY());
-    		
-    		if(i!=n-1)
-    			TC.println("\t},"); // the node is not the last one
-    		else
-    			TC.println("\t}"); // last node
-    		
-    		i++;
-    	}
-    	TC.println("    ],");
-
-    	// write edges
-    	i=0;
-    	TC.println("    \"edges\": [");
-    	for(Node u: layout.g.nodes) { // iterate over all nodes
-    		for(Node v: u.neighbors) { // iterate over all neighbors of 'u'
-    			if(u.index<v.index) { // write an edge only once, when u<v
-    				TC.println("\t{"); // start encoding a new edges
-    				TC.println("\t    \"source\": "+u.index+",");
-    				TC.println("\t    \"target\": "+v.index);
-
-    				if(i!=nE-1)
-    					TC.println("\t},"); // the edge is not the last one
-    				else
-    					TC.println("\t}"); // last edge
-
-    				i++;
-    			}
-    		}
-    	}
-    	TC.println("    ],");
-    	
-    	// output the width and height
-    	TC.println("    \"width\": "+layout.width+",");
-    	TC.println("    \"height\": "+layout.height+",");
-    	TC.println("    \"bends\": "+layout.maxBends);
-    	TC.println("}");
-    	
-    	TC.ecritureSortieStandard();
-    	System.out.println("done ("+n+" vertices, "+i+" edges)");
+    	long startTime=System.nanoTime();
+    	JSONLayoutWriter.write(layout, output); // buffered writer (bend points included)
+    	double time=(System.nanoTime()-startTime)/1000000.;
+    	System.out.println("done ("+layout.n+" vertices, "+layout.e+" edges, "+time+" ms)");
     }
 	
 }
@@ -0,0 +1,133 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Write a grid layout (vertex coordinates and bend points) to a JSON file. <br>
+ * <br>
+ * The output is produced in a reusable byte buffer (integers are formatted by hand, and no strings are allocated per token),
+ * which is flushed to the output stream when full: the running time is dominated by disk bandwidth. <br>
+ * If the name of the output file ends with ".gz", the output is compressed (gzip format). <br>
+ * <br>
+ * Remark: bend points are written starting from the extremity of smaller index (the source of the edge)
+ */
+public class JSONLayoutWriter {
+	/** size of the output buffer (in bytes) */
+	private static final int BUFFER_SIZE=1<<16;
+
+	private OutputStream out;
+	private byte[] buffer=new byte[BUFFER_SIZE];
+	private int position=0;
+	/** auxiliary array for formatting integers */
+	private byte[] digits=new byte[20];
+
+	/**
+	 * Write the layout to a JSON file (compressed if the file name ends with ".gz")
+	 */
+	public static void write(GridLayout layout, String filename) {
+		JSONLayoutWriter writer=new JSONLayoutWriter();
+		try(OutputStream file=new FileOutputStream(filename)) {
+			if(filename.endsWith(".gz")) {
+				try(OutputStream gzip=new GZIPOutputStream(file, BUFFER_SIZE)) {
+					writer.out=gzip;
+					writer.writeLayout(layout);
+				}
+			}
+			else {
+				writer.out=file;
+				writer.writeLayout(layout);
+			}
+		} catch (IOException ex) {
+			throw new Error("Error: cannot write file "+filename+" ("+ex.getMessage()+")");
+		}
+	}
+
+	private void writeLayout(GridLayout layout) throws IOException {
+		this.print("{\n");
+
+		// write nodes
+		this.print("    \"nodes\": [\n");
+		for(int i=0;i<layout.n;i++) {
+			GridPoint p=layout.points[i];
+			this.print("\t{\"id\": ");
+			this.print(i);
+			this.print(", \"x\": ");
+			this.print(p.getX());
+			this.print(", \"y\": ");
+			this.print(p.getY());
+			this.print((i!=layout.n-1) ? "},\n" : "}\n");
+		}
+		this.print("    ],\n");
+
+		// write edges (u, v), with u<v, according to their index
+		this.print("    \"edges\": [\n");
+		for(int i=0;i<layout.e;i++) {
+			this.print("\t{\"source\": ");
+			this.print(layout.csr.edgeSource(i));
+			this.print(", \"target\": ");
+			this.print(layout.csr.edgeTarget(i));
+			GridPoint[] bends=(layout.bendPoints!=null) ? layout.bendPoints[i] : null;
+			if(bends!=null) {
+				this.print(",\n\t    \"bends\": [");
+				for(int j=0;j<bends.length;j++) {
+					this.print((j==0) ? "{\"x\": " : ", {\"x\": ");
+					this.print(bends[j].getX());
+					this.print(", \"y\": ");
+					this.print(bends[j].getY());
+					this.print("}");
+				}
+				this.print("]");
+			}
+			this.print((i!=layout.e-1) ? "},\n" : "}\n");
+		}
+		this.print("    ],\n");
+
+		// output the width and height
+		this.print("    \"width\": ");
+		this.print(layout.width);
+		this.print(",\n    \"height\": ");
+		this.print(layout.height);
+		this.print(",\n    \"bends\": ");
+		this.print(layout.maxBends);
+		this.print("\n}\n");
+		this.flush();
+	}
+
+	/**
+	 * Write a string (ASCII characters only)
+	 */
+	private void print(String s) throws IOException {
+		int length=s.length();
+		if(this.position+length>this.buffer.length)
+			this.flush();
+		for(int i=0;i<length;i++)
+			this.buffer[this.position++]=(byte)s.charAt(i);
+	}
+
+	/**
+	 * Write an integer, in decimal format
+	 */
+	private void print(int value) throws IOException {
+		if(this.position+11>this.buffer.length)
+			this.flush();
+		long v=value; // works for Integer.MIN_VALUE
+		if(v<0) {
+			this.buffer[this.position++]='-';
+			v=-v;
+		}
+		int k=0;
+		do {
+			this.digits[k++]=(byte)('0'+v%10);
+			v=v/10;
+		} while(v>0);
+		while(k>0)
+			this.buffer[this.position++]=this.digits[--k];
+	}
+
+	private void flush() throws IOException {
+		this.out.write(this.buffer, 0, this.position);
+		this.position=0;
+	}
+
+}
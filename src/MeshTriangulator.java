@@ -0,0 +1,169 @@
+import java.util.Arrays;
+
+import Jcg.geometry.Point_3;
+import Jcg.mesh.LoadMesh;
+import Jcg.polyhedron.Halfedge;
+import Jcg.polyhedron.Polyhedron_3;
+import Jcg.polyhedron.Vertex;
+import jdg.graph.EdgeIndexMap;
+
+/**
+ * Augment a planar mesh (with faces of arbitrary degree, and possibly with boundaries) to a planar triangulation,
+ * by adding dummy edges. <br>
+ * <br>
+ * Every face (and every hole, bounded by a boundary cycle) is triangulated by cutting ears: <br>
+ * -) given three consecutive vertices (a, b, c) of the face, the dummy edge (a, c) is added if 'a' and 'c' are not adjacent <br>
+ * -) otherwise the chord (a, c) lies outside the face, and by planarity (b, d) can be added (where 'd' follows 'c') <br>
+ * Ears are cut alternately around the face (the size of the face is halved at each turn), so that the degree of
+ * each vertex increases by O(log k) for a face of size k. <br>
+ * <br>
+ * Adjacency tests take O(1) expected time (using an <tt>EdgeIndexMap</tt>): the augmentation runs in O(n) time. <br>
+ * Remark: vertex indices are preserved (the triangulation has the same vertices as the input mesh).
+ */
+public class MeshTriangulator {
+	/** the input mesh */
+	public Polyhedron_3<Point_3> mesh;
+	/** number of dummy edges added by the augmentation */
+	public int dummyEdges=0;
+
+	/** edges of the current graph (original and dummy edges) */
+	private EdgeIndexMap edges;
+	/** the triangles of the augmented mesh (3 vertex indices per triangle) */
+	private int[] triangles;
+	private int nTriangles=0;
+
+	public MeshTriangulator(Polyhedron_3<Point_3> mesh) {
+		this.mesh=mesh;
+	}
+
+	/**
+	 * Check whether the mesh is planar (genus 0, once its holes are filled)
+	 */
+	public static boolean isPlanar(Polyhedron_3<Point_3> mesh) {
+		boolean[] visited=new boolean[mesh.sizeOfHalfedges()];
+		int nCycles=0; // faces and holes
+		int i=0;
+		for(Halfedge<Point_3> h: mesh.halfedges)
+			h.index=i++;
+		for(Halfedge<Point_3> h: mesh.halfedges) {
+			if(visited[h.index]==true)
+				continue;
+			nCycles++;
+			Halfedge<Point_3> p=h;
+			do {
+				visited[p.index]=true;
+				p=p.getNext();
+			} while(p!=h);
+		}
+		return mesh.sizeOfVertices()-mesh.sizeOfHalfedges()/2+nCycles==2;
+	}
+
+	/**
+	 * Compute a planar triangulation containing the mesh (faces and holes are triangulated)
+	 *
+	 * @return a planar triangulation having the same vertices (and indices) as the input mesh
+	 */
+	public Polyhedron_3<Point_3> triangulate() {
+		System.out.print("Triangulating the mesh...");
+		if(isPlanar(this.mesh)==false)
+			throw new Error("Error: the mesh is not planar");
+
+		int n=this.mesh.sizeOfVertices();
+		int i=0;
+		for(Vertex<Point_3> v: this.mesh.vertices)
+			v.index=i++;
+		this.edges=new EdgeIndexMap(3*n);
+		for(Halfedge<Point_3> h: this.mesh.halfedges) {
+			this.edges.putIfAbsent(h.getOpposite().getVertex().index, h.getVertex().index, this.edges.size());
+		}
+		this.triangles=new int[3*Math.max(2*n-4, 1)]; // a planar triangulation has 2n-4 faces
+
+		// triangulate all faces and holes (every half-edge belongs to exactly one cycle)
+		boolean[] visited=new boolean[this.mesh.sizeOfHalfedges()];
+		int[] cycle=new int[16];
+		for(Halfedge<Point_3> h: this.mesh.halfedges) {
+			if(visited[h.index]==true)
+				continue;
+			int k=0;
+			Halfedge<Point_3> p=h;
+			do {
+				visited[p.index]=true;
+				if(k==cycle.length)
+					cycle=Arrays.copyOf(cycle, 2*k);
+				cycle[k++]=p.getVertex().index;
+				p=p.getNext();
+			} while(p!=h);
+			this.triangulateFace(cycle, k);
+		}
+
+		// build the triangulation
+		Point_3[] points=new Point_3[n];
+		for(Vertex<Point_3> v: this.mesh.vertices)
+			points[v.index]=v.getPoint();
+		int[] degrees=new int[this.nTriangles];
+		int[][] faces=new int[this.nTriangles][];
+		for(int t=0;t<this.nTriangles;t++) {
+			degrees[t]=3;
+			faces[t]=new int[] {this.triangles[3*t], this.triangles[3*t+1], this.triangles[3*t+2]};
+		}
+		Polyhedron_3<Point_3> result=new LoadMesh<Point_3>().createPolyhedron(points, degrees, faces, 3*this.nTriangles);
+		System.out.println("done ("+this.dummyEdges+" dummy edges)");
+		return result;
+	}
+
+	/**
+	 * Triangulate a face (or a hole) given by its cycle of vertices c[0..k-1], by cutting ears
+	 */
+	private void triangulateFace(int[] c, int k) {
+		int[] next=new int[k]; // the remaining polygon (positions in the cycle)
+		for(int i=0;i<k;i++)
+			next[i]=(i+1)%k;
+		int remaining=k;
+		int a=0;
+		int failures=0; // number of consecutive positions where no ear can be cut
+		while(remaining>3) {
+			int b=next[a], cc=next[b], d=next[cc];
+			if(c[a]!=c[cc] && this.edges.containsKey(c[a], c[cc])==false) { // cut the ear at 'b'
+				this.addEar(c[a], c[b], c[cc]);
+				next[a]=cc;
+				remaining--;
+				a=cc;
+				failures=0;
+			}
+			else if(c[b]!=c[d] && this.edges.containsKey(c[b], c[d])==false) { // the chord (a, c) is outside: cut the ear at 'c'
+				this.addEar(c[b], c[cc], c[d]);
+				next[b]=d;
+				remaining--;
+				a=d;
+				failures=0;
+			}
+			else {
+				a=b;
+				failures++;
+				if(failures>remaining)
+					throw new Error("Error: the face cannot be triangulated without multiple edges");
+			}
+		}
+		int b=next[a], cc=next[b];
+		this.addTriangle(c[a], c[b], c[cc]);
+	}
+
+	/**
+	 * Add the triangle (a, b, c) and the dummy edge (a, c)
+	 */
+	private void addEar(int a, int b, int c) {
+		this.edges.putIfAbsent(a, c, this.edges.size());
+		this.dummyEdges++;
+		this.addTriangle(a, b, c);
+	}
+
+	private void addTriangle(int a, int b, int c) {
+		if(3*this.nTriangles==this.triangles.length)
+			this.triangles=Arrays.copyOf(this.triangles, 2*this.triangles.length);
+		this.triangles[3*this.nTriangles]=a;
+		this.triangles[3*this.nTriangles+1]=b;
+		this.triangles[3*this.nTriangles+2]=c;
+		this.nTriangles++;
+	}
+
+}
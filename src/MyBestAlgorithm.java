@@ -1,8 +1,20 @@
 import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * An algorithm minimizing the planar polyline edge-length ratio of a planar graph on a fixed grid. <br>
- * 
+ * <br>
+ * The layout is optimized with a multi-start simulated annealing: <br>
+ * -) several independent chains (one per core) are run in parallel on a fork-join pool, each one on its own copy of the layout <br>
+ * -) a move displaces a vertex (or a bend point) on the grid: it is rejected if it creates a crossing <br>
+ * -) the chains are synchronized after each round: the worst chain restarts from the best current solution <br>
+ * <br>
+ * Remark: every chain uses its own random generator (with a deterministic seed), so that the result only depends on
+ * the seed and on the number of chains. The input layout must be valid (planar).
+ *
  * @author Luca Castelli Aleardi (Ecole Polytechnique, fev 2021)
  *
  */
@@ -10,17 +22,244 @@ public class MyBestAlgorithm {
 	/** layout of the input graph */
 	private GridLayout layout;
 
+	/** number of chains (by default, the number of available cores) */
+	public int nChains=Runtime.getRuntime().availableProcessors();
+	/** number of rounds: chains exchange their solutions after each round */
+	public int rounds=100;
+	/** number of moves performed by each chain during a round */
+	public int movesPerRound=20000;
+	/** seed of the random generators (chain 'i' uses the seed 'seed+i') */
+	public long seed=0;
+	/** initial temperature, and cooling factor applied after each round */
+	public double initialTemperature=0.05, cooling=0.95;
+
+	/** for each bend point (numbered from 0), the corresponding edge and its position along the edge */
+	private int[] bendEdge, bendRank;
+
 	/** Initialize the algorithm */
 	public MyBestAlgorithm(GridLayout layout) {
 		this.layout=layout;
 	}
-	
+
 	/**
 	 * Minimize the planar polyline edge-length ratio
 	 */
 	public void run() {
-		// TO BE COMPLETED: apply your favourite algorithm or heuristic
-		System.out.println("--------\nTo be completed\n---------");
+		System.out.print("Running simulated annealing ("+this.nChains+" chains)...");
+		if(new PlanarityChecker(this.layout).isValid()==false) {
+			System.out.println("the input layout is not valid: nothing to do");
+			return;
+		}
+		long startTime=System.nanoTime();
+		this.indexBends();
+
+		Chain[] chains=new Chain[this.nChains];
+		for(int i=0;i<this.nChains;i++)
+			chains[i]=new Chain(this.layout.copy(), this.seed+i);
+
+		ForkJoinPool pool=new ForkJoinPool(this.nChains);
+		double temperature=this.initialTemperature;
+		long moves=0;
+		try {
+			for(int r=0;r<this.rounds;r++) {
+				for(Chain c: chains) {
+					c.reinitialize();
+					c.temperature=temperature;
+				}
+				pool.invoke(new RecursiveAction() {
+					protected void compute() {
+						ForkJoinTask.invokeAll(chains);
+					}
+				});
+				this.exchange(chains);
+				temperature=temperature*this.cooling;
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+
+		// keep the best solution found
+		Chain best=chains[0];
+		for(Chain c: chains) {
+			moves=moves+c.moves;
+			if(c.bestRatio<best.bestRatio)
+				best=c;
+		}
+		double initialRatio=this.layout.computeEdgeLengthRatio();
+		if(best.bestRatio<initialRatio)
+			this.restore(best.bestCoordinates);
+
+		double seconds=(System.nanoTime()-startTime)/1000000000.;
+		System.out.println("done");
+		System.out.println("\tedge-length ratio: "+initialRatio+" -> "+this.layout.computeEdgeLengthRatio());
+		System.out.println("\t"+moves+" moves in "+seconds+" seconds ("+(long)(moves/seconds)+" moves/s)");
+	}
+
+	/**
+	 * Number the bend points of the layout (the 'k'-th bend point is the point n+k)
+	 */
+	private void indexBends() {
+		ArrayList<Integer> edges=new ArrayList<Integer>(), ranks=new ArrayList<Integer>();
+		if(this.layout.bendPoints!=null) {
+			for(int j=0;j<this.layout.e;j++) {
+				if(this.layout.bendPoints[j]==null)
+					continue;
+				for(int i=0;i<this.layout.bendPoints[j].length;i++) {
+					edges.add(j);
+					ranks.add(i);
+				}
+			}
+		}
+		this.bendEdge=new int[edges.size()];
+		this.bendRank=new int[edges.size()];
+		for(int k=0;k<edges.size();k++) {
+			this.bendEdge[k]=edges.get(k);
+			this.bendRank[k]=ranks.get(k);
+		}
+	}
+
+	/**
+	 * Exchange solutions between chains: the worst chain restarts from a copy of the best current layout
+	 */
+	private void exchange(Chain[] chains) {
+		Chain best=chains[0], worst=chains[0];
+		for(Chain c: chains) {
+			if(c.ratio<best.ratio)
+				best=c;
+			if(c.ratio>worst.ratio)
+				worst=c;
+		}
+		if(best!=worst)
+			worst.reset(best.layout.copy());
+	}
+
+	/**
+	 * Set the coordinates of the input layout (its spatial index and edge lengths are invalidated)
+	 */
+	private void restore(int[] coordinates) {
+		GridLayout l=this.layout;
+		for(int v=0;v<l.n;v++) {
+			l.points[v].setX(coordinates[2*v]);
+			l.points[v].setY(coordinates[2*v+1]);
+		}
+		for(int k=0;k<this.bendEdge.length;k++) {
+			GridPoint b=l.bendPoints[this.bendEdge[k]][this.bendRank[k]];
+			b.setX(coordinates[2*(l.n+k)]);
+			b.setY(coordinates[2*(l.n+k)+1]);
+		}
+		l.spatialIndex=null;
+		l.lengthTracker=null;
+	}
+
+	/**
+	 * A simulated annealing chain, working on its own copy of the layout
+	 */
+	private class Chain extends RecursiveAction {
+		private static final long serialVersionUID=1L;
+		GridLayout layout;
+		Random random;
+		/** current temperature (set before each round) */
+		double temperature;
+		/** current edge-length ratio */
+		double ratio;
+		/** best ratio found by this chain, and the corresponding coordinates (vertices first, then bends) */
+		double bestRatio=Double.MAX_VALUE;
+		int[] bestCoordinates;
+		/** points moved since the best solution was stored (their coordinates are copied lazily, when a better solution is found) */
+		int[] dirty;
+		boolean[] isDirty;
+		int nDirty=0;
+		/** number of moves performed */
+		long moves=0;
+
+		Chain(GridLayout layout, long seed) {
+			int nPoints=layout.n+bendEdge.length;
+			this.random=new Random(seed);
+			this.bestCoordinates=new int[2*nPoints];
+			this.dirty=new int[nPoints];
+			this.isDirty=new boolean[nPoints];
+			this.reset(layout);
+		}
+
+		/** Restart the chain from a given layout */
+		void reset(GridLayout layout) {
+			this.layout=layout;
+			layout.buildSpatialIndex();
+			this.ratio=layout.buildLengthTracker().ratio();
+			for(int p=0;p<this.dirty.length;p++) // all points may differ from the best solution
+				this.markDirty(p);
+			if(this.ratio<this.bestRatio)
+				this.storeBest();
+		}
+
+		/** Mark a point as moved since the best solution was stored */
+		private void markDirty(int p) {
+			if(this.isDirty[p]==false) {
+				this.isDirty[p]=true;
+				this.dirty[this.nDirty++]=p;
+			}
+		}
+
+		/** Store the current solution as the best one: only the coordinates of the moved points are copied */
+		private void storeBest() {
+			this.bestRatio=this.ratio;
+			for(int i=0;i<this.nDirty;i++) {
+				int p=this.dirty[i];
+				GridPoint point=this.point(p);
+				this.bestCoordinates[2*p]=point.getX();
+				this.bestCoordinates[2*p+1]=point.getY();
+				this.isDirty[p]=false;
+			}
+			this.nDirty=0;
+		}
+
+		/** Return the point 'p' (a vertex if p&lt;n, a bend point otherwise) */
+		private GridPoint point(int p) {
+			GridLayout l=this.layout;
+			return (p<l.n) ? l.points[p] : l.bendPoints[bendEdge[p-l.n]][bendRank[p-l.n]];
+		}
+
+		/** Perform one round of moves */
+		protected void compute() {
+			GridLayout l=this.layout;
+			int nPoints=l.n+bendEdge.length;
+			int radius=Math.max(1, (int)(Math.max(l.width, l.height)*this.temperature/initialTemperature)/4);
+
+			for(int k=0;k<movesPerRound;k++) {
+				this.moves++;
+				int p=this.random.nextInt(nPoints);
+				GridPoint point=this.point(p);
+				int oldX=point.getX(), oldY=point.getY();
+				int x=oldX+this.random.nextInt(2*radius+1)-radius;
+				int y=oldY+this.random.nextInt(2*radius+1)-radius;
+				if(x==oldX && y==oldY)
+					continue;
+
+				boolean valid=(p<l.n) ? l.canMoveVertex(p, x, y) : l.canMoveBend(bendEdge[p-l.n], bendRank[p-l.n], x, y);
+				if(valid==false)
+					continue;
+				this.move(p, x, y);
+				double newRatio=l.lengthTracker.ratio();
+
+				double delta=Math.log(newRatio/this.ratio); // Metropolis criterion
+				if(delta<=0 || this.random.nextDouble()<Math.exp(-delta/this.temperature)) {
+					this.ratio=newRatio;
+					this.markDirty(p);
+					if(this.ratio<this.bestRatio) // uphill moves may follow: the best solution is stored now
+						this.storeBest();
+				}
+				else
+					this.move(p, oldX, oldY); // undo the move
+			}
+		}
+
+		private void move(int p, int x, int y) {
+			if(p<this.layout.n)
+				this.layout.moveVertex(p, x, y);
+			else
+				this.layout.moveBend(bendEdge[p-this.layout.n], bendRank[p-this.layout.n], x, y);
+		}
 	}
 
 }
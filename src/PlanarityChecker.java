@@ -0,0 +1,342 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.TreeSet;
+
+/**
+ * Validation of a grid layout: check whether a polyline drawing is planar, fits the grid bounds
+ * and respects the maximal number of bends per edge. <br>
+ * <br>
+ * Planarity is tested with a sweep-line algorithm (Shamos-Hoey), processing the segments of all polylines
+ * (including the bends) in lexicographic (x, y) order: <br>
+ * -) the segments intersecting the sweep line are stored in a balanced search tree (ordered from bottom to top) <br>
+ * -) a segment is only compared with its neighbors in the tree, when it is inserted or when a segment between them is removed <br>
+ * The first conflict found is reported: the running time is O(N log N), where N is the number of segments. <br>
+ * <br>
+ * Remark: two segments are allowed to meet only at a common extremity representing the same vertex (or bend).
+ * All predicates are evaluated with exact integer arithmetic (see <tt>GridGeometry</tt>).
+ */
+public class PlanarityChecker {
+	/** the layout to validate */
+	public GridLayout layout;
+
+	/** number of segments (isolated vertices are stored as segments of length 0) */
+	public int size;
+	/** coordinates of the segment extremities: (x1, y1) is the lexicographically smaller one */
+	int[] x1, y1, x2, y2;
+	/** identifiers of the extremities: 'v' for the vertex 'v', n+i for the 'i'-th bend point */
+	int[] id1, id2;
+	/** for each segment, the index of the corresponding edge (-1 for isolated vertices) */
+	int[] edge;
+	/** position of the segment along the polyline of its edge (0 for the segment incident to the edge source) */
+	int[] rank;
+
+	/** description of the first violation found (null if the layout is valid) */
+	public String message=null;
+	/** the first pair of crossing segments found (null if there are no crossings) */
+	public int[] conflict=null;
+
+	/**
+	 * Initialize the checker (the segments are only built once the bounds have been checked)
+	 */
+	public PlanarityChecker(GridLayout layout) {
+		this.layout=layout;
+	}
+
+	/**
+	 * Check whether the layout defines a valid grid drawing with polylines: <br>
+	 * 1) the number of bends per edge does not exceed the prescribed bound <br>
+	 * 2) vertices and bends lie on the grid [0,0]x[w,h] <br>
+	 * 3) the drawing is planar (crossing-free) <br>
+	 * <br>
+	 * Remark: the reason of the first violation found is stored in <tt>message</tt>
+	 */
+	public boolean isValid() {
+		this.message=null;
+		this.conflict=null;
+		if(this.checkBends()==false || this.checkBounds()==false)
+			return false;
+
+		this.buildSegments();
+		if(this.checkDistinctPoints()==false)
+			return false;
+		this.conflict=this.findCrossing();
+		if(this.conflict!=null) {
+			this.message="crossing segments:\n\t"+this.segmentToString(this.conflict[0])+"\n\t"+this.segmentToString(this.conflict[1]);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Check the number of bends per edge
+	 */
+	boolean checkBends() {
+		GridLayout l=this.layout;
+		if(l.bendPoints==null)
+			return true;
+		for(int j=0;j<l.e;j++) {
+			GridPoint[] bends=l.bendPoints[j];
+			if(bends!=null && bends.length>l.maxBends) {
+				this.message="edge "+j+" has "+bends.length+" bends (at most "+l.maxBends+" allowed)";
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Check that all vertices and bends are defined and lie within the bounds of the grid
+	 */
+	boolean checkBounds() {
+		GridLayout l=this.layout;
+		for(int v=0;v<l.n;v++) {
+			if(this.inBounds(l.points[v])==false) {
+				this.message="vertex "+v+" is out of bounds: "+l.points[v];
+				return false;
+			}
+		}
+		if(l.bendPoints==null)
+			return true;
+		for(int j=0;j<l.e;j++) {
+			if(l.bendPoints[j]==null)
+				continue;
+			for(GridPoint p: l.bendPoints[j]) {
+				if(this.inBounds(p)==false) {
+					this.message="bend point of edge "+j+" is out of bounds: "+p;
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private boolean inBounds(GridPoint p) {
+		return p!=null && p.getX()>=0 && p.getX()<=this.layout.width && p.getY()>=0 && p.getY()<=this.layout.height;
+	}
+
+	/**
+	 * Build the segments of all polylines: the 'k'-th bend point (in edge order) gets identifier n+k. <br>
+	 * Isolated vertices are represented by segments of length 0.
+	 */
+	void buildSegments() {
+		GridLayout l=this.layout;
+		int count=0;
+		for(int v=0;v<l.n;v++)
+			if(l.csr.degree(v)==0)
+				count++;
+		for(int j=0;j<l.e;j++)
+			count=count+this.bendCount(j)+1;
+		this.allocate(count);
+
+		int nextBend=l.n; // identifier of the next bend point
+		for(int j=0;j<l.e;j++) {
+			int u=l.csr.edgeSource(j), v=l.csr.edgeTarget(j);
+			int k=this.bendCount(j);
+			GridPoint previous=l.points[u];
+			int previousId=u;
+			for(int i=0;i<=k;i++) {
+				GridPoint next=(i<k) ? l.bendPoints[j][i] : l.points[v];
+				int nextId=(i<k) ? nextBend++ : v;
+				this.addSegment(previous, previousId, next, nextId, j, i);
+				previous=next;
+				previousId=nextId;
+			}
+		}
+		for(int v=0;v<l.n;v++)
+			if(l.csr.degree(v)==0)
+				this.addSegment(l.points[v], v, l.points[v], v, -1, 0);
+	}
+
+	private int bendCount(int j) {
+		GridPoint[][] bends=this.layout.bendPoints;
+		if(bends==null || bends[j]==null)
+			return 0;
+		return bends[j].length;
+	}
+
+	private void allocate(int capacity) {
+		this.x1=new int[capacity];
+		this.y1=new int[capacity];
+		this.x2=new int[capacity];
+		this.y2=new int[capacity];
+		this.id1=new int[capacity];
+		this.id2=new int[capacity];
+		this.edge=new int[capacity];
+		this.rank=new int[capacity];
+		this.size=0;
+	}
+
+	private void addSegment(GridPoint p, int idP, GridPoint q, int idQ, int e, int r) {
+		if(lexCompare(p.getX(), p.getY(), q.getX(), q.getY())>0) { // store the lexicographically smaller extremity first
+			GridPoint t=p; p=q; q=t;
+			int id=idP; idP=idQ; idQ=id;
+		}
+		int s=this.size++;
+		this.x1[s]=p.getX(); this.y1[s]=p.getY();
+		this.x2[s]=q.getX(); this.y2[s]=q.getY();
+		this.id1[s]=idP; this.id2[s]=idQ;
+		this.edge[s]=e;
+		this.rank[s]=r;
+	}
+
+	/**
+	 * Check that distinct vertices and bends lie at distinct locations (sorting the points)
+	 */
+	boolean checkDistinctPoints() {
+		GridLayout l=this.layout;
+		int count=l.n;
+		for(int j=0;j<l.e;j++)
+			count=count+this.bendCount(j);
+		long[] locations=new long[count];
+		int k=0;
+		for(int v=0;v<l.n;v++)
+			locations[k++]=location(l.points[v]);
+		for(int j=0;j<l.e;j++)
+			for(int i=0;i<this.bendCount(j);i++)
+				locations[k++]=location(l.bendPoints[j][i]);
+
+		Arrays.sort(locations);
+		for(int i=1;i<count;i++) {
+			if(locations[i]==locations[i-1]) {
+				long p=locations[i];
+				this.message="two distinct points (vertices or bends) have the same location: ("+(p>>>32)+", "+(int)p+")";
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** encode the location of a point (with non negative coordinates) with a long */
+	private static long location(GridPoint p) {
+		return ((long)p.getX()<<32)|p.getY();
+	}
+
+	private static int lexCompare(int ax, int ay, int bx, int by) {
+		if(ax!=bx)
+			return ax<bx ? -1 : 1;
+		return Integer.compare(ay, by);
+	}
+
+	/**
+	 * Compare two segments intersecting the sweep line (from bottom to top): the segment starting later
+	 * is compared with the line supporting the other one. <br>
+	 * Remark: the order is consistent as long as the two segments do not cross (overlapping segments are ordered by index)
+	 */
+	int compareSegments(int a, int b) {
+		if(a==b)
+			return 0;
+		int sign=1;
+		if(lexCompare(this.x1[a], this.y1[a], this.x1[b], this.y1[b])<0) { // 'a' must be the segment starting later
+			int t=a; a=b; b=t;
+			sign=-1;
+		}
+		int o=GridGeometry.orientation(this.x1[b], this.y1[b], this.x2[b], this.y2[b], this.x1[a], this.y1[a]);
+		if(o==0)
+			o=GridGeometry.orientation(this.x1[b], this.y1[b], this.x2[b], this.y2[b], this.x2[a], this.y2[a]);
+		if(o==0)
+			o=(a<b) ? -1 : 1;
+		return sign*o;
+	}
+
+	/**
+	 * Compare two events of the sweep: by location, and removals first at the same location. <br>
+	 * The event 2s (resp. 2s+1) corresponds to the left (resp. right) extremity of the segment 's'
+	 */
+	int compareEvents(int e, int f) {
+		int s=e>>1, t=f>>1;
+		int ex=(e&1)==0 ? this.x1[s] : this.x2[s];
+		int ey=(e&1)==0 ? this.y1[s] : this.y2[s];
+		int fx=(f&1)==0 ? this.x1[t] : this.x2[t];
+		int fy=(f&1)==0 ? this.y1[t] : this.y2[t];
+		int result=lexCompare(ex, ey, fx, fy);
+		if(result!=0)
+			return result;
+		return (f&1)-(e&1); // removals (odd events) come first
+	}
+
+	/**
+	 * Check whether two segments have a forbidden common point
+	 */
+	boolean inConflict(int s, int t) {
+		return GridGeometry.inConflict(this.x1[s], this.y1[s], this.x2[s], this.y2[s], this.id1[s], this.id2[s],
+				this.x1[t], this.y1[t], this.x2[t], this.y2[t], this.id1[t], this.id2[t]);
+	}
+
+	/**
+	 * Run the sweep over the segments (Shamos-Hoey)
+	 *
+	 * @return the first pair of segments in conflict. <br> Return null if the drawing is crossing-free.
+	 */
+	public int[] findCrossing() {
+		// sort the events: isolated vertices (segments of length 0) only generate one event
+		int[] events=new int[2*this.size];
+		int count=0;
+		for(int s=0;s<this.size;s++) {
+			events[count++]=2*s;
+			if(this.edge[s]>=0)
+				events[count++]=2*s+1;
+		}
+		events=Arrays.copyOf(events, count);
+		this.sortEvents(events);
+
+		TreeSet<Integer> status=new TreeSet<Integer>(new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				return compareSegments(a, b);
+			}
+		});
+		for(int e: events) {
+			Integer s=e>>1;
+			if((e&1)==0) { // insertion
+				status.add(s);
+				Integer below=status.lower(s), above=status.higher(s);
+				if(below!=null && this.inConflict(below, s))
+					return new int[] {below, s};
+				if(above!=null && this.inConflict(s, above))
+					return new int[] {s, above};
+				if(this.edge[s]<0) // isolated vertex
+					status.remove(s);
+			}
+			else { // removal: the neighbors of 's' become adjacent
+				Integer below=status.lower(s), above=status.higher(s);
+				status.remove(s);
+				if(below!=null && above!=null && this.inConflict(below, above))
+					return new int[] {below, above};
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Sort the events (bottom-up merge sort, using <tt>compareEvents</tt>)
+	 */
+	private void sortEvents(int[] events) {
+		int[] src=events, dst=new int[events.length];
+		for(int width=1;width<events.length;width=2*width) {
+			for(int lo=0;lo<events.length;lo=lo+2*width) {
+				int mid=Math.min(lo+width, events.length), hi=Math.min(lo+2*width, events.length);
+				int i=lo, j=mid, k=lo;
+				while(i<mid && j<hi)
+					dst[k++]=(this.compareEvents(src[j], src[i])<0) ? src[j++] : src[i++];
+				while(i<mid)
+					dst[k++]=src[i++];
+				while(j<hi)
+					dst[k++]=src[j++];
+			}
+			int[] t=src; src=dst; dst=t;
+		}
+		if(src!=events)
+			System.arraycopy(src, 0, events, 0, events.length);
+	}
+
+	/**
+	 * Return a description of the segment 's'
+	 */
+	public String segmentToString(int s) {
+		String result="("+this.x1[s]+", "+this.y1[s]+")-("+this.x2[s]+", "+this.y2[s]+")";
+		if(this.edge[s]<0)
+			return "isolated vertex "+this.id1[s]+" "+result;
+		int j=this.edge[s];
+		return "edge "+j+" ("+this.layout.csr.edgeSource(j)+", "+this.layout.csr.edgeTarget(j)+"), segment "+this.rank[s]+": "+result;
+	}
+
+}
@@ -0,0 +1,223 @@
+import java.util.Arrays;
+
+import Jcg.geometry.Point_;
+import Jcg.geometry.Point_3;
+import Jcg.mesh.LoadMesh;
+import Jcg.polyhedron.Halfedge;
+import Jcg.polyhedron.Polyhedron_3;
+import jdg.graph.CSRGraph;
+import jdg.graph.LRPlanarity;
+import sw.ArrayBasedIntQueue;
+import sw.BalancedSchnyderWood;
+import sw.SchnyderDrawing;
+
+/**
+ * Compute an initial (planar) grid layout of a planar mesh, using Schnyder woods. <br>
+ * <br>
+ * The pipeline runs in O(n) time: <br>
+ * -) triangulate the mesh, if necessary (adding dummy edges) <br>
+ * -) compute a (balanced) Schnyder wood of the triangulation (vertex shelling traversal) <br>
+ * -) compute the Schnyder drawing: vertices lie on a grid of size (2n-5)x(2n-5) <br>
+ * -) scale the drawing by an integer factor, in order to fit the grid of the layout (planarity is preserved) <br>
+ * <br>
+ * Graphs provided without a combinatorial embedding (JSON and MTX inputs) are first embedded with the
+ * Left-Right planarity test (see <tt>LRPlanarity</tt>), which also runs in O(n) time. The faces of OFF inputs are
+ * used directly (see <tt>createPlanarMesh()</tt>). <br>
+ * <br>
+ * Remark: vertex indices are assumed to coincide with the indices of the vertices of the mesh.
+ */
+public class SchnyderLayout {
+
+	/**
+	 * Check whether a mesh is a planar triangulation (genus 0, no boundaries, triangular faces)
+	 */
+	public static boolean isPlanarTriangulation(Polyhedron_3<Point_3> mesh) {
+		if(mesh.sizeOfVertices()<3 || mesh.genus()!=0)
+			return false;
+		for(Halfedge<Point_3> h: mesh.halfedges) {
+			if(h.getFace()==null) // boundary edge
+				return false;
+			if(h.getNext().getNext().getNext()!=h) // not a triangle
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Compute the Schnyder drawing of a planar mesh: if the mesh is not a triangulation, it is first augmented
+	 * with dummy edges (see <tt>MeshTriangulator</tt>). The drawing of the input mesh is obtained by removing the dummy edges.
+	 *
+	 * @return the integer coordinates of the vertices (x and y-coordinates of 'v_i' at indices 2*i and 2*i+1), on a grid of size (2n-5)x(2n-5)
+	 */
+	public static int[] computeSchnyderDrawing(Polyhedron_3<Point_3> mesh) {
+		if(isPlanarTriangulation(mesh)==false)
+			mesh=new MeshTriangulator(mesh).triangulate();
+
+		BalancedSchnyderWood sw=computeSchnyderWood(mesh);
+		sw.performTraversal(); // compute the Schnyder wood (vertex shelling traversal)
+
+		SchnyderDrawing sd=new SchnyderDrawing(sw);
+		sd.computeSchnyderDrawing(); // compute the Schnyder drawing (the coordinates are stored in 'coordinates')
+		return sd.coordinates;
+	}
+
+	/**
+	 * Create the (balanced) Schnyder wood of a planar triangulation, rooted at its first half-edge <br>
+	 * (Schnyder woods are defined on meshes of type <tt>Polyhedron_3&lt;Point_&gt;</tt>, which are only navigated)
+	 */
+	@SuppressWarnings("unchecked")
+	static BalancedSchnyderWood computeSchnyderWood(Polyhedron_3<Point_3> mesh) {
+		Polyhedron_3<Point_> polyhedron=(Polyhedron_3<Point_>)(Polyhedron_3<?>)mesh;
+		return new BalancedSchnyderWood(polyhedron, polyhedron.halfedges.get(0));
+	}
+
+	/**
+	 * Set the vertex coordinates of the layout from the Schnyder drawing of a planar mesh,
+	 * scaled by the largest integer factor fitting the grid of the layout. <br>
+	 * <br>
+	 * Remark: the spatial index and the edge lengths of the layout (if any) are invalidated
+	 *
+	 * @param layout  the layout to initialize (having the same vertices as the mesh)
+	 * @param mesh  a planar mesh (possibly with boundaries)
+	 */
+	public static void setLayout(GridLayout layout, Polyhedron_3<Point_3> mesh) {
+		System.out.print("Computing Schnyder drawing...");
+		long startTime=System.nanoTime();
+		int[] coordinates=computeSchnyderDrawing(mesh);
+
+		int f=2*mesh.sizeOfVertices()-5; // size of the Schnyder grid
+		int scale=Math.min(layout.width, layout.height)/Math.max(f, 1);
+		if(scale<1)
+			throw new Error("Error: the grid is too small for the Schnyder drawing ("+f+"x"+f+")");
+
+		for(int v=0;v<layout.n;v++) {
+			layout.points[v].setX(scale*coordinates[2*v]);
+			layout.points[v].setY(scale*coordinates[2*v+1]);
+		}
+		layout.spatialIndex=null;
+		layout.lengthTracker=null;
+		double time=(System.nanoTime()-startTime)/1000000.;
+		System.out.println("done ("+time+" ms, scale factor "+scale+")");
+	}
+
+	/**
+	 * Compute a planar embedding of a graph, stored as a mesh (faces are given by the embedding, and the outer face is a face of the mesh). <br>
+	 * Connected components are first joined by dummy edges (incident to vertex 0), which preserves planarity.
+	 *
+	 * @return a planar mesh having the same vertices (and indices) as the graph, or null if the graph is not planar
+	 */
+	public static Polyhedron_3<Point_3> computePlanarMesh(CSRGraph g) {
+		int n=g.sizeVertices();
+
+		// connect the components
+		int[] src=new int[g.m+n], dst=new int[g.m+n];
+		for(int j=0;j<g.m;j++) {
+			src[j]=g.edgeSource(j);
+			dst[j]=g.edgeTarget(j);
+		}
+		int count=g.m;
+		int[] component=new int[n];
+		Arrays.fill(component, -1);
+		ArrayBasedIntQueue queue=new ArrayBasedIntQueue(n);
+		for(int v=0;v<n;v++) {
+			if(component[v]>=0)
+				continue;
+			if(v>0) { // a new component
+				src[count]=0;
+				dst[count]=v;
+				count++;
+			}
+			queue.add(v);
+			component[v]=v;
+			while(queue.isEmpty()==false) { // BFS
+				int u=queue.poll();
+				for(int k=g.offsets[u];k<g.offsets[u+1];k++) {
+					int w=g.targets[k];
+					if(component[w]<0) {
+						component[w]=v;
+						queue.add(w);
+					}
+				}
+			}
+		}
+		CSRGraph connected=(count==g.m) ? g : CSRGraph.fromEdges(n, src, dst, count);
+
+		// compute the embedding and its faces
+		LRPlanarity lr=new LRPlanarity(connected);
+		if(lr.embed()==false)
+			return null;
+		int[][] faces=lr.computeFaces();
+
+		Point_3[] points=new Point_3[n];
+		for(int v=0;v<n;v++)
+			points[v]=new Point_3();
+		int[] degrees=new int[faces.length];
+		for(int i=0;i<faces.length;i++)
+			degrees[i]=faces[i].length;
+		return new LoadMesh<Point_3>().createPolyhedron(points, degrees, faces, 2*connected.m);
+	}
+
+	/**
+	 * Build the mesh defined by a set of faces (e.g. the faces of an OFF file), which provide a planar embedding of the graph:
+	 * no embedding is computed. <br>
+	 * The vertices of the 'i'-th face are faceVertices[k], for faceOffsets[i]&lt;=k&lt;faceOffsets[i+1]
+	 *
+	 * @return a mesh having n vertices (with the same indices), or null if the faces do not define a connected planar mesh
+	 */
+	public static Polyhedron_3<Point_3> createPlanarMesh(int n, int nFaces, int[] faceOffsets, int[] faceVertices) {
+		Point_3[] points=new Point_3[n];
+		for(int v=0;v<n;v++)
+			points[v]=new Point_3();
+		int[] degrees=new int[nFaces];
+		int[][] faces=new int[nFaces][];
+		for(int i=0;i<nFaces;i++) {
+			degrees[i]=faceOffsets[i+1]-faceOffsets[i];
+			if(degrees[i]<3)
+				return null;
+			faces[i]=Arrays.copyOfRange(faceVertices, faceOffsets[i], faceOffsets[i+1]);
+		}
+		Polyhedron_3<Point_3> mesh=new LoadMesh<Point_3>().createPolyhedron(points, degrees, faces, faceOffsets[nFaces]);
+		if(MeshTriangulator.isPlanar(mesh)==false) // not planar, or not connected (isolated vertices or several components)
+			return null;
+		return mesh;
+	}
+
+	/**
+	 * Set the vertex coordinates of a layout from the Schnyder drawing of a planar embedding of its graph
+	 * (computed with the Left-Right planarity test). <br>
+	 * <br>
+	 * The layout is left unchanged (and a message is printed) if the graph has less than 3 vertices, if it is not planar,
+	 * or if the grid is too small for the Schnyder drawing. <br>
+	 * <br>
+	 * Remark: bend points are removed (edges are drawn as straight-line segments)
+	 *
+	 * @param layout  the layout to initialize
+	 * @return true if the vertex coordinates have been set
+	 */
+	public static boolean setLayout(GridLayout layout) {
+		int f=2*layout.n-5; // size of the Schnyder grid
+		if(layout.n<3) {
+			System.out.println("Schnyder layout not computed: the graph has less than 3 vertices");
+			return false;
+		}
+		if(Math.min(layout.width, layout.height)<f) {
+			System.out.println("Schnyder layout not computed: the grid is too small for the Schnyder drawing ("+f+"x"+f+")");
+			return false;
+		}
+		System.out.print("Computing planar embedding...");
+		long startTime=System.nanoTime();
+		Polyhedron_3<Point_3> mesh=computePlanarMesh(layout.csr);
+		if(mesh==null) {
+			System.out.println("\nSchnyder layout not computed: the graph is not planar");
+			return false;
+		}
+		double time=(System.nanoTime()-startTime)/1000000.;
+		System.out.println("done ("+time+" ms)");
+
+		if(layout.bendPoints!=null)
+			Arrays.fill(layout.bendPoints, null);
+		setLayout(layout, mesh);
+		return true;
+	}
+
+}
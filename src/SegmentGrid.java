@@ -0,0 +1,320 @@
+import java.util.Arrays;
+
+import jdg.graph.CSRGraph;
+
+/**
+ * A spatial index (uniform grid) storing the segments of a polyline grid layout, allowing to test
+ * whether a local move (of a vertex or of a bend point) creates a crossing. <br>
+ * <br>
+ * The rectangle [0,0]x[w,h] is partitioned into square cells: every segment is stored in the cells it passes through. <br>
+ * -) a query only checks the segments lying in the cells traversed by the moved segments <br>
+ * -) after a move, only the segments incident to the moved point are updated <br>
+ * <br>
+ * Points are identified as in <tt>PlanarityChecker</tt>: 'v' for the vertex 'v', n+i for the 'i'-th bend point.
+ * Segments of edge 'j' have indices <tt>segmentOffset[j]..segmentOffset[j+1]-1</tt> (following the polyline
+ * from the edge source), and an isolated vertex is stored as a segment of length 0. <br>
+ * <br>
+ * Remark: the number of bends of each edge is fixed when the index is built. The index assumes that the layout is
+ * only modified through the methods <tt>GridLayout.moveVertex()</tt> and <tt>GridLayout.moveBend()</tt>.
+ */
+public class SegmentGrid {
+	/** the layout */
+	public GridLayout layout;
+
+	/** coordinates of the points (vertices and bends) */
+	int[] px, py;
+	/** for each edge, the identifier of its first bend point (array of size e+1) */
+	int[] bendOffset;
+	/** for each edge, the index of its first segment (array of size e+1) */
+	int[] segmentOffset;
+	/** number of segments */
+	public int size;
+	/** extremities of the segments (point identifiers) */
+	int[] source, target;
+	/** for each vertex, the index of the segment of length 0 representing it if it is isolated (-1 otherwise) */
+	int[] isolated;
+
+	/** size of a (square) cell */
+	public int cellSize;
+	/** number of columns and rows of the grid */
+	public int cols, rows;
+	/** for each cell, the indices of the segments passing through it */
+	int[][] cells;
+	/** number of segments stored in each cell */
+	int[] cellCount;
+
+	/** marks the segments already visited during a query (with a timestamp) */
+	private int[] visited;
+	private int stamp=0;
+	/** buffer for the indices of the cells traversed by a segment */
+	private int[] cellBuffer=new int[16];
+	/** buffer for the moved segments */
+	private int[] moved=new int[16];
+
+	/**
+	 * Build the index storing all segments of the layout (vertices and bends must lie on the grid)
+	 */
+	public SegmentGrid(GridLayout layout) {
+		this.layout=layout;
+		CSRGraph csr=layout.csr;
+		int n=layout.n, e=layout.e;
+
+		this.bendOffset=new int[e+1];
+		this.segmentOffset=new int[e+1];
+		this.bendOffset[0]=n;
+		for(int j=0;j<e;j++) {
+			this.bendOffset[j+1]=this.bendOffset[j]+this.bendCount(j);
+			this.segmentOffset[j+1]=this.segmentOffset[j]+this.bendCount(j)+1;
+		}
+		int isolatedVertices=0;
+		for(int v=0;v<n;v++)
+			if(csr.degree(v)==0)
+				isolatedVertices++;
+
+		// store the points
+		int nPoints=this.bendOffset[e];
+		this.px=new int[nPoints];
+		this.py=new int[nPoints];
+		for(int v=0;v<n;v++)
+			this.setPoint(v, layout.points[v]);
+		for(int j=0;j<e;j++)
+			for(int i=0;i<this.bendCount(j);i++)
+				this.setPoint(this.bendOffset[j]+i, layout.bendPoints[j][i]);
+
+		// store the segments
+		this.size=this.segmentOffset[e]+isolatedVertices;
+		this.source=new int[this.size];
+		this.target=new int[this.size];
+		for(int j=0;j<e;j++) {
+			int previous=csr.edgeSource(j);
+			int k=this.bendCount(j);
+			for(int i=0;i<=k;i++) {
+				int next=(i<k) ? this.bendOffset[j]+i : csr.edgeTarget(j);
+				this.source[this.segmentOffset[j]+i]=previous;
+				this.target[this.segmentOffset[j]+i]=next;
+				previous=next;
+			}
+		}
+		this.isolated=new int[n];
+		int s=this.segmentOffset[e];
+		for(int v=0;v<n;v++) {
+			this.isolated[v]=-1;
+			if(csr.degree(v)==0) {
+				this.isolated[v]=s;
+				this.source[s]=v;
+				this.target[s]=v;
+				s++;
+			}
+		}
+		this.visited=new int[this.size];
+
+		// build the grid: roughly one cell per segment
+		double area=((double)layout.width+1)*((double)layout.height+1);
+		this.cellSize=(int)Math.max(1, Math.ceil(Math.sqrt(area/Math.max(1, this.size))));
+		this.cols=layout.width/this.cellSize+1;
+		this.rows=layout.height/this.cellSize+1;
+		this.cells=new int[this.cols*this.rows][];
+		this.cellCount=new int[this.cols*this.rows];
+		for(s=0;s<this.size;s++)
+			this.insertSegment(s);
+	}
+
+	private int bendCount(int j) {
+		GridPoint[][] bends=this.layout.bendPoints;
+		if(bends==null || bends[j]==null)
+			return 0;
+		return bends[j].length;
+	}
+
+	private void setPoint(int id, GridPoint p) {
+		if(p.getX()<0 || p.getX()>this.layout.width || p.getY()<0 || p.getY()>this.layout.height)
+			throw new Error("Error: point "+id+" is out of bounds "+p);
+		this.px[id]=p.getX();
+		this.py[id]=p.getY();
+	}
+
+	/**
+	 * Compute the cells traversed by the segment [a, b] (stored in <tt>cellBuffer</tt>)
+	 *
+	 * @return the number of cells
+	 */
+	private int collectCells(long ax, long ay, long bx, long by) {
+		if(ax>bx) {
+			long t=ax; ax=bx; bx=t;
+			t=ay; ay=by; by=t;
+		}
+		int c=this.cellSize;
+		long dx=bx-ax, dy=by-ay;
+		int count=0;
+		for(long col=ax/c;col<=bx/c && col<this.cols;col++) {
+			long yMin, yMax;
+			if(dx==0) {
+				yMin=Math.min(ay, by);
+				yMax=Math.max(ay, by);
+			}
+			else { // the part of the segment within the (closed) slab of the column
+				long x0=Math.max(ax, col*c), x1=Math.min(bx, (col+1)*c);
+				long y0=ay+Math.floorDiv(dy*(x0-ax), dx);
+				long y1=ay+Math.floorDiv(dy*(x1-ax), dx);
+				yMin=Math.min(y0, y1);
+				yMax=Math.max(y0, y1);
+			}
+			for(long row=yMin/c;row<=yMax/c && row<this.rows;row++) {
+				if(count==this.cellBuffer.length)
+					this.cellBuffer=Arrays.copyOf(this.cellBuffer, 2*count);
+				this.cellBuffer[count++]=(int)(row*this.cols+col);
+			}
+		}
+		return count;
+	}
+
+	private void insertSegment(int s) {
+		int count=this.collectCells(this.px[this.source[s]], this.py[this.source[s]], this.px[this.target[s]], this.py[this.target[s]]);
+		for(int k=0;k<count;k++) {
+			int cell=this.cellBuffer[k];
+			if(this.cells[cell]==null)
+				this.cells[cell]=new int[4];
+			else if(this.cellCount[cell]==this.cells[cell].length)
+				this.cells[cell]=Arrays.copyOf(this.cells[cell], 2*this.cellCount[cell]);
+			this.cells[cell][this.cellCount[cell]++]=s;
+		}
+	}
+
+	private void removeSegment(int s) {
+		int count=this.collectCells(this.px[this.source[s]], this.py[this.source[s]], this.px[this.target[s]], this.py[this.target[s]]);
+		for(int k=0;k<count;k++) {
+			int cell=this.cellBuffer[k];
+			int[] list=this.cells[cell];
+			for(int i=0;i<this.cellCount[cell];i++) {
+				if(list[i]==s) { // swap with the last entry
+					list[i]=list[--this.cellCount[cell]];
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the number of segments incident to the vertex 'v' (stored in <tt>moved</tt>)
+	 */
+	private int incidentSegments(int v) {
+		CSRGraph csr=this.layout.csr;
+		if(this.isolated[v]>=0) {
+			this.moved[0]=this.isolated[v];
+			return 1;
+		}
+		int count=0;
+		for(int k=csr.offsets[v];k<csr.offsets[v+1];k++) {
+			int j=csr.edgeIds[k];
+			if(count==this.moved.length)
+				this.moved=Arrays.copyOf(this.moved, 2*count);
+			if(csr.edgeSource(j)==v)
+				this.moved[count++]=this.segmentOffset[j];
+			else
+				this.moved[count++]=this.segmentOffset[j+1]-1;
+		}
+		return count;
+	}
+
+	/**
+	 * Return the number of segments incident to the 'i'-th bend of edge 'j' (stored in <tt>moved</tt>)
+	 */
+	private int bendSegments(int j, int i) {
+		this.moved[0]=this.segmentOffset[j]+i;
+		this.moved[1]=this.segmentOffset[j]+i+1;
+		return 2;
+	}
+
+	/**
+	 * Check whether the moved segments (incident to the point 'p') cross some other segment, when 'p' is moved to (x, y)
+	 */
+	private boolean createsCrossing(int p, int x, int y, int nMoved) {
+		if(x<0 || x>this.layout.width || y<0 || y>this.layout.height)
+			return true;
+
+		for(int k=0;k<nMoved;k++) {
+			int s=this.moved[k];
+			int a=this.source[s], b=this.target[s];
+			long ax=(a==p) ? x : this.px[a], ay=(a==p) ? y : this.py[a];
+			long bx=(b==p) ? x : this.px[b], by=(b==p) ? y : this.py[b];
+			if(a!=b && ax==bx && ay==by) // two distinct points at the same location
+				return true;
+
+			// the moved segments must not overlap
+			for(int l=k+1;l<nMoved;l++) {
+				int t=this.moved[l];
+				int c=this.source[t], d=this.target[t];
+				long cx=(c==p) ? x : this.px[c], cy=(c==p) ? y : this.py[c];
+				long dx=(d==p) ? x : this.px[d], dy=(d==p) ? y : this.py[d];
+				if(GridGeometry.inConflict(ax, ay, bx, by, a, b, cx, cy, dx, dy, c, d))
+					return true;
+			}
+
+			// check the other segments in the traversed cells (each one is visited once)
+			this.stamp++;
+			if(this.stamp==0) { // overflow of the timestamp
+				Arrays.fill(this.visited, 0);
+				this.stamp=1;
+			}
+			int count=this.collectCells(ax, ay, bx, by);
+			for(int i=0;i<count;i++) {
+				int cell=this.cellBuffer[i];
+				for(int h=0;h<this.cellCount[cell];h++) {
+					int t=this.cells[cell][h];
+					if(this.visited[t]==this.stamp)
+						continue;
+					this.visited[t]=this.stamp;
+					int c=this.source[t], d=this.target[t];
+					if(c==p || d==p) // moved segment (already checked)
+						continue;
+					if(GridGeometry.inConflict(ax, ay, bx, by, a, b, this.px[c], this.py[c], this.px[d], this.py[d], c, d))
+						return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Check whether moving the vertex 'v' to (x, y) creates a crossing (or places it out of the grid)
+	 */
+	public boolean createsCrossingVertex(int v, int x, int y) {
+		return this.createsCrossing(v, x, y, this.incidentSegments(v));
+	}
+
+	/**
+	 * Check whether moving the 'i'-th bend point of edge 'j' to (x, y) creates a crossing (or places it out of the grid)
+	 */
+	public boolean createsCrossingBend(int j, int i, int x, int y) {
+		return this.createsCrossing(this.bendOffset[j]+i, x, y, this.bendSegments(j, i));
+	}
+
+	/**
+	 * Move the point 'p' to (x, y) and update the segments incident to 'p'
+	 */
+	private void movePoint(int p, int x, int y, int nMoved) {
+		if(x<0 || x>this.layout.width || y<0 || y>this.layout.height)
+			throw new Error("Error: point "+p+" cannot be moved out of the grid ("+x+", "+y+")");
+		for(int k=0;k<nMoved;k++)
+			this.removeSegment(this.moved[k]);
+		this.px[p]=x;
+		this.py[p]=y;
+		for(int k=0;k<nMoved;k++)
+			this.insertSegment(this.moved[k]);
+	}
+
+	/**
+	 * Update the index after moving the vertex 'v' to (x, y)
+	 */
+	public void moveVertex(int v, int x, int y) {
+		this.movePoint(v, x, y, this.incidentSegments(v));
+	}
+
+	/**
+	 * Update the index after moving the 'i'-th bend point of edge 'j' to (x, y)
+	 */
+	public void moveBend(int j, int i, int x, int y) {
+		this.movePoint(this.bendOffset[j]+i, x, y, this.bendSegments(j, i));
+	}
+
+}
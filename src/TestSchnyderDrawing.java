@@ -5,6 +5,7 @@ import Jcg.mesh.*;
 import Jcg.viewer.old.Fenetre;
 import Jcg.viewer.processing3d.MeshViewerProcessing;
 import sw.BalancedSchnyderWood;
+import sw.ParallelSchnyderDrawing;
 import sw.PlanarTriSchnyderWood;
 import sw.SchnyderDrawing;
 import Jcg.io.options.*;
@@ -39,16 +40,61 @@ public class TestSchnyderDrawing {
 			System.out.println("("+coord2D[i][0]+", "+coord2D[i][0]+")");
 	}
 
+	/**
+	 * Compare the memory layouts of the Schnyder drawing (AOS and SOA), for each phase of the computation: <br>
+	 * -) the sizes, heights and cumulative sizes in the trees T0, T1 and T2 (sequential and parallel) <br>
+	 * -) the 2D embedding, stored in a single array of size 2n or in an array of n arrays (n tiny arrays) <br>
+	 * Each phase is repeated several times (the first runs warm up the JVM), and the best running time is reported.
+	 */
+	public static void benchmarkLayouts(String filename, int runs) {
+		Polyhedron_3<Point_3> mesh=MeshLoader.getSurfaceMesh(filename);
+		PlanarTriSchnyderWood sw=SchnyderLayout.computeSchnyderWood(mesh); // balanced Schnyder wood, rooted at the first half-edge
+		sw.performTraversal();
+		
+		String[] names= {"AOS", "SOA"};
+		int[] layouts= {SchnyderDrawing.AOS, SchnyderDrawing.SOA};
+		for(int l=0;l<layouts.length;l++) {
+			SchnyderDrawing sd=new SchnyderDrawing(sw, layouts[l]);
+			SchnyderDrawing psd=new ParallelSchnyderDrawing(sw, layouts[l], 0, 1); // the parallel computation is always performed
+			sd.verbosity=0;
+			psd.verbosity=0;
+			double[] best= {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+			for(int r=0;r<runs;r++) {
+				long t0=System.nanoTime();
+				sd.computeTreeStatistics();
+				long t1=System.nanoTime();
+				psd.computeTreeStatistics();
+				long t2=System.nanoTime();
+				sd.compute2DCoordinates();
+				long t3=System.nanoTime();
+				sd.compute2DEmbedding();
+				long t4=System.nanoTime();
+				best[0]=Math.min(best[0], (t1-t0)/1000000.);
+				best[1]=Math.min(best[1], (t2-t1)/1000000.);
+				best[2]=Math.min(best[2], (t3-t2)/1000000.);
+				best[3]=Math.min(best[3], (t4-t3)/1000000.);
+			}
+			System.out.println("Layout "+names[l]+" ("+mesh.sizeOfVertices()+" vertices, best of "+runs+" runs):");
+			System.out.println("\t tree statistics (sequential): "+best[0]+" ms");
+			System.out.println("\t tree statistics (parallel): "+best[1]+" ms");
+			System.out.println("\t 2D embedding (int[2n]): "+best[2]+" ms");
+			System.out.println("\t 2D embedding (int[n][2]): "+best[3]+" ms");
+		}
+	}
+
     public static void main (String[] args) {
 		System.out.println("Testing Schnyder drawing for planar triangulations");
     	if (args.length == 0) {
     		System.out.println("I wait for a mesh stored in OFF format");
-    		System.out.println("Usage : java TestSchnyderDrawing filename");
+    		System.out.println("Usage : java TestSchnyderDrawing filename [-benchmark]");
     		return;
     	}
 
     	String filename=args[0];
-    	testSW(filename);
+    	if(args.length>1 && args[1].equals("-benchmark"))
+    		benchmarkLayouts(filename, 20);
+    	else
+    		testSW(filename);
     }
 
 }
@@ -16,15 +16,15 @@ public class AdjacencyListGraph {
 	
 	/** store the nodes of the graph */
 	public ArrayList<Node> nodes;
-	/** the edges of the graph, stored in a hash map as pairs of nodes */
-	public HashMap<Edge,Integer> edges;
+	/** the edges of the graph, stored in a hash map associating an index to each pair of node indices */
+	public EdgeIndexMap edges;
 	
 	/** 
 	 * Initialize an empty graph
 	 **/
 	public AdjacencyListGraph() {
 		this.nodes=new ArrayList<Node>(); // empty list of nodes
-		this.edges=new HashMap<Edge,Integer>(); // empty collection of edges
+		this.edges=new EdgeIndexMap(); // empty collection of edges
 	}
 	
 	/** 
@@ -50,13 +50,16 @@ public class AdjacencyListGraph {
 	 * @return the index of edge (a, b). <br> Return -1 if the edge (a, b) does not exist in the graph.
 	 **/
 	public int getEdgeIndex(Node a, Node b) {
-		Edge e=new Edge(a, b, 0);
-		
-		if(this.edges.containsKey(e)==true) {
-			return this.edges.get(e);
-		}
-		else
-			return -1;
+		return this.edges.get(a.index, b.index); // no allocation: the key is a primitive value
+	}
+	
+	/** 
+	 * Return the index of the edge having extremities (a, b) if any, given the indices of the two nodes
+	 * 
+	 * @return the index of edge (a, b). <br> Return -1 if the edge (a, b) does not exist in the graph.
+	 **/
+	public int getEdgeIndex(int a, int b) {
+		return this.edges.get(a, b);
 	}
 	
 	/** 
@@ -80,12 +83,10 @@ public class AdjacencyListGraph {
     	if(a==null || b==null)
     		return;
     	
-		Edge e=new Edge(a, b, 0);
-		if(this.edges.containsKey(e)==false) { // check whether the edge already exists
-			int nE=this.edges.size();
+		int nE=this.edges.size();
+		if(this.edges.putIfAbsent(a.index, b.index, nE)<0) { // the edge is added only if it does not already exist
 			a.addNeighbor(b);
 			b.addNeighbor(a);
-			this.edges.put(e, nE); // add the edge in the hashmap
 		}
     }
 
@@ -100,7 +101,7 @@ public class AdjacencyListGraph {
     }
     
 	/** 
-	 * Check whether two nodes are adjacent (slow implementation, without hash maps)
+	 * Check whether two nodes are adjacent (using the neighbor sets of the nodes: O(log d) or O(1) expected time)
 	 **/
     public boolean adjacent(Node a, Node b) {
     	if(a==null || b==null)
@@ -0,0 +1,294 @@
+package jdg.graph;
+
+import java.util.Arrays;
+
+/**
+ * Compressed Sparse Row (CSR) representation of an undirected graph (with no multiple edges and loops). <br>
+ * <br>
+ * Vertices have indices between 0..n-1 and edges have indices between 0..m-1. <br>
+ * -) the neighbors of vertex 'u' are stored in <tt>targets[offsets[u]..offsets[u+1]-1]</tt>, sorted by increasing index <br>
+ * -) <tt>edgeIds[k]</tt> is the index of the edge (u, targets[k]) <br>
+ * -) the extremities of the 'j'-th edge are <tt>ends[2j]</tt> and <tt>ends[2j+1]</tt>, with <tt>ends[2j]&lt;ends[2j+1]</tt> <br>
+ * <br>
+ * Remark: the graph is static (built once), and uses roughly 6 integers per edge and 1 integer per vertex.
+ */
+public class CSRGraph {
+	/** number of vertices */
+	public int n;
+	/** number of (undirected) edges */
+	public int m;
+
+	/** for each vertex 'u', the position of its first neighbor in the array 'targets' (array of size n+1) */
+	public int[] offsets;
+	/** the concatenation of the (sorted) neighbor lists of all vertices (array of size 2m) */
+	public int[] targets;
+	/** for each entry of 'targets', the index of the corresponding edge (array of size 2m) */
+	public int[] edgeIds;
+	/** the extremities of the edges: edge 'j' is (ends[2j], ends[2j+1]) (array of size 2m) */
+	public int[] ends;
+
+	/**
+	 * Initialize a graph from its CSR arrays (no check is performed)
+	 */
+	public CSRGraph(int n, int m, int[] offsets, int[] targets, int[] edgeIds, int[] ends) {
+		this.n=n;
+		this.m=m;
+		this.offsets=offsets;
+		this.targets=targets;
+		this.edgeIds=edgeIds;
+		this.ends=ends;
+	}
+
+	/**
+	 * Build a graph from a list of edges (src[i], dst[i]), for i=0..count-1 <br>
+	 * <br>
+	 * Remark: loops and multiple edges are discarded. Edges are indexed according to the order of their first occurrence
+	 * in the input list (the 'i'-th edge of a list without duplicates gets index 'i').
+	 *
+	 * @param n  number of vertices (vertex indices must be between 0..n-1)
+	 * @param src  first extremities of the edges
+	 * @param dst  second extremities of the edges
+	 * @param count  number of edges in the input list
+	 */
+	public static CSRGraph fromEdges(int n, int[] src, int[] dst, int count) {
+		int[] degree=new int[n+1];
+		for(int i=0;i<count;i++) {
+			int a=src[i], b=dst[i];
+			if(a<0 || a>=n || b<0 || b>=n)
+				throw new Error("Error: wrong vertex indices "+a+" "+b);
+			if(a!=b) { // loops are not allowed
+				degree[a]++;
+				degree[b]++;
+			}
+		}
+
+		// distribute the (directed) entries: each one is encoded as (target, position in the input list)
+		int[] start=new int[n+1];
+		for(int u=0;u<n;u++)
+			start[u+1]=start[u]+degree[u];
+		long[] entries=new long[start[n]];
+		int[] fill=Arrays.copyOf(start, n);
+		for(int i=0;i<count;i++) {
+			int a=src[i], b=dst[i];
+			if(a!=b) {
+				entries[fill[a]++]=((long)b<<32)|i;
+				entries[fill[b]++]=((long)a<<32)|i;
+			}
+		}
+
+		// sort the neighbors of each vertex and keep the first occurrence of each edge
+		boolean[] keep=new boolean[count];
+		for(int u=0;u<n;u++) {
+			Arrays.sort(entries, start[u], start[u+1]);
+			long previous=-1;
+			for(int k=start[u];k<start[u+1];k++) {
+				long target=entries[k]>>>32;
+				if(target!=previous && u<target)
+					keep[(int)entries[k]]=true; // first (smallest) position of the edge (u, target)
+				previous=target;
+			}
+		}
+		int[] edgeIndex=new int[count];
+		int m=0;
+		for(int i=0;i<count;i++) {
+			edgeIndex[i]=keep[i] ? m++ : -1;
+		}
+
+		// compact the arrays, discarding multiple edges
+		int[] offsets=new int[n+1];
+		int[] targets=new int[2*m];
+		int[] edgeIds=new int[2*m];
+		int[] ends=new int[2*m];
+		int k=0;
+		for(int u=0;u<n;u++) {
+			offsets[u]=k;
+			long previous=-1;
+			for(int p=start[u];p<start[u+1];p++) {
+				long target=entries[p]>>>32;
+				if(target!=previous) {
+					int v=(int)target;
+					int a=src[(int)entries[p]], b=dst[(int)entries[p]];
+					int id=edgeIndex[(int)entries[p]]; // the first entry has the smallest position: it is never discarded
+					targets[k]=v;
+					edgeIds[k]=id;
+					ends[2*id]=Math.min(a, b);
+					ends[2*id+1]=Math.max(a, b);
+					k++;
+				}
+				previous=target;
+			}
+		}
+		offsets[n]=k;
+
+		return new CSRGraph(n, m, offsets, targets, edgeIds, ends);
+	}
+
+	/**
+	 * Build the CSR representation of a pointer based graph <br>
+	 * <br>
+	 * Remark: nodes are assumed to have indices between 0..n-1. Edges keep the relative order of their indices
+	 * (as returned by <tt>g.getEdgeIndex()</tt>), but the indices are compacted if edges have been removed
+	 * (see <tt>fromGraph(g, translation)</tt>)
+	 */
+	public static CSRGraph fromGraph(AdjacencyListGraph g) {
+		return fromGraph(g, null);
+	}
+
+	/**
+	 * Build the CSR representation of a pointer based graph, and store the translation of the edge indices: <br>
+	 * the edge having index 'i' in <tt>g</tt> has index translation[i] in the CSR graph (-1 for removed edges)
+	 *
+	 * @param translation  an array of size at least <tt>g.edges.size()</tt> (or null)
+	 */
+	public static CSRGraph fromGraph(AdjacencyListGraph g, int[] translation) {
+		int n=g.sizeVertices();
+		int[] src=new int[g.edges.size()];
+		int[] dst=new int[g.edges.size()];
+		Arrays.fill(src, -1);
+		for(Node u: g.nodes) {
+			for(Node v: u.neighbors) {
+				if(u.index<v.index) {
+					int id=g.getEdgeIndex(u, v);
+					src[id]=u.index;
+					dst[id]=v.index;
+				}
+			}
+		}
+
+		int count=0; // removed edges leave holes in the indexing
+		for(int i=0;i<src.length;i++) {
+			if(translation!=null)
+				translation[i]=(src[i]>=0) ? count : -1;
+			if(src[i]>=0) {
+				src[count]=src[i];
+				dst[count]=dst[i];
+				count++;
+			}
+		}
+		return fromEdges(n, src, dst, count);
+	}
+
+	/**
+	 * Return the number of nodes
+	 */
+	public int sizeVertices() {
+		return this.n;
+	}
+
+	/**
+	 * Return the number of (undirected) edges
+	 */
+	public int sizeEdges() {
+		return this.m;
+	}
+
+	/**
+	 * Return the degree of vertex 'u'
+	 */
+	public int degree(int u) {
+		return this.offsets[u+1]-this.offsets[u];
+	}
+
+	/**
+	 * Return the first extremity of the 'j'-th edge (the one having the smaller index)
+	 */
+	public int edgeSource(int j) {
+		return this.ends[2*j];
+	}
+
+	/**
+	 * Return the second extremity of the 'j'-th edge (the one having the larger index)
+	 */
+	public int edgeTarget(int j) {
+		return this.ends[2*j+1];
+	}
+
+	/**
+	 * Return the index of the edge having extremities (u, v), with a binary search in the neighbors of 'u'
+	 *
+	 * @return the index of edge (u, v). <br> Return -1 if the edge (u, v) does not exist in the graph.
+	 **/
+	public int getEdgeIndex(int u, int v) {
+		if(this.degree(u)>this.degree(v)) { // search in the smaller neighbor list
+			int w=u; u=v; v=w;
+		}
+		int k=Arrays.binarySearch(this.targets, this.offsets[u], this.offsets[u+1], v);
+		if(k<0)
+			return -1;
+		return this.edgeIds[k];
+	}
+
+	/**
+	 * Check whether two vertices are adjacent
+	 **/
+	public boolean adjacent(int u, int v) {
+		return this.getEdgeIndex(u, v)>=0;
+	}
+
+	/**
+	 * Return the maximum vertex degree
+	 */
+	public int maxDegree() {
+		int result=0;
+		for(int u=0;u<this.n;u++)
+			result=Math.max(result, this.degree(u));
+		return result;
+	}
+
+    /**
+     * Compute the connected component containing the vertex v (BFS visit of the graph)
+     *
+     * @param v  the starting node
+     * @return the indices of the nodes lying in the same connected component of v
+     */
+	public int[] findConnectedComponent(int v) {
+		boolean[] visited=new boolean[this.n];
+		int[] queue=new int[this.n]; // every vertex is enqueued at most once
+		int head=0, tail=0;
+
+		queue[tail++]=v;
+		visited[v]=true;
+		while(head<tail) {
+			int u=queue[head++];
+			for(int k=this.offsets[u];k<this.offsets[u+1];k++) {
+				int w=this.targets[k];
+				if(visited[w]==false) {
+					visited[w]=true;
+					queue[tail++]=w;
+				}
+			}
+		}
+		return Arrays.copyOf(queue, tail);
+	}
+
+    /**
+     * Check whether the graph is connected
+     */
+	public boolean isConnected() {
+		if(this.n==0)
+			return true;
+		return this.findConnectedComponent(0).length==this.n;
+	}
+
+    /**
+     * Return a string containing informations and parameters of the graph
+     */
+	public String info() {
+		String result=this.n+" vertices, "+this.m+" edges\n";
+
+		int isolatedVertices=0;
+		for(int u=0;u<this.n;u++)
+			if(this.degree(u)==0)
+				isolatedVertices++;
+		result=result+"isolated vertices: "+isolatedVertices+"\n";
+		result=result+"max vertex degree: "+this.maxDegree()+"\n";
+
+		if(this.isConnected()==true)
+			result=result+"the graph is connected\n";
+		else
+			result=result+"the graph is not connected\n";
+
+		return result;
+	}
+
+}
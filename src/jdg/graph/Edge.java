@@ -35,8 +35,10 @@ public class Edge {
 		throw new RuntimeException ("Method equals: comparing Edge with object of type " + o.getClass());  	
 	}
 
+	/** Symmetric hash code, computed from the packed pair of indices (min, max) as in {@link EdgeIndexMap} */
 	public int hashCode () {
-		return this.first.index*this.second.index;
+		long key=EdgeIndexMap.key(this.first.index, this.second.index)*0x9E3779B97F4A7C15L;
+		return (int)(key^(key>>>32));
 	}
 
 }
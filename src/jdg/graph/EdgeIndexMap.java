@@ -0,0 +1,139 @@
+package jdg.graph;
+
+import java.util.Arrays;
+
+/**
+ * A hash map associating an integer (the edge index) to the undirected edges of a graph. <br>
+ * <br>
+ * The edge (a, b) is encoded by a single <tt>long</tt> key, packing the pair (min(a, b), max(a, b)).
+ * Keys are stored in a primitive array with open addressing (linear probing), so that
+ * lookups do not allocate any object. <br>
+ * <br>
+ * Remark: entries cannot be removed (edge indices are never reused)
+ */
+public class EdgeIndexMap {
+	/** marks an empty slot (valid keys are non negative) */
+	private static final long EMPTY=-1L;
+
+	/** packed keys (min, max) of the edges */
+	private long[] keys;
+	/** the index associated to each key */
+	private int[] values;
+	/** number of edges stored in the map */
+	private int size;
+	/** shift used for computing the slot of a key (the capacity is 2^(64-shift)) */
+	private int shift;
+
+	/**
+	 * Initialize an empty map
+	 */
+	public EdgeIndexMap() {
+		this(16);
+	}
+
+	/**
+	 * Initialize an empty map, able to store 'expectedSize' edges without being resized
+	 */
+	public EdgeIndexMap(int expectedSize) {
+		int capacity=4;
+		while(capacity<2*expectedSize) // the load factor is kept below 1/2
+			capacity=2*capacity;
+		this.allocate(capacity);
+	}
+
+	private void allocate(int capacity) {
+		this.keys=new long[capacity];
+		this.values=new int[capacity];
+		Arrays.fill(this.keys, EMPTY);
+		this.shift=64-Integer.numberOfTrailingZeros(capacity);
+		this.size=0;
+	}
+
+	/**
+	 * Return the key encoding the undirected edge (a, b)
+	 */
+	public static long key(int a, int b) {
+		if(a<b)
+			return ((long)a<<32)|b;
+		return ((long)b<<32)|a;
+	}
+
+	/**
+	 * Return the first slot to probe (Fibonacci hashing: the high bits of the product are well mixed)
+	 */
+	private int slot(long key) {
+		return (int)((key*0x9E3779B97F4A7C15L)>>>this.shift);
+	}
+
+	/**
+	 * Return the index of the edge (a, b)
+	 *
+	 * @return the index of edge (a, b). <br> Return -1 if the edge (a, b) is not stored in the map.
+	 */
+	public int get(int a, int b) {
+		long key=key(a, b);
+		int mask=this.keys.length-1;
+		int i=this.slot(key);
+		while(this.keys[i]!=EMPTY) {
+			if(this.keys[i]==key)
+				return this.values[i];
+			i=(i+1)&mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Check whether the edge (a, b) is stored in the map
+	 */
+	public boolean containsKey(int a, int b) {
+		return this.get(a, b)>=0;
+	}
+
+	/**
+	 * Associate the index 'value' to the edge (a, b), if the edge is not already stored in the map
+	 *
+	 * @return the index already associated to the edge (a, b). <br> Return -1 if the edge has been added.
+	 */
+	public int putIfAbsent(int a, int b, int value) {
+		long key=key(a, b);
+		int mask=this.keys.length-1;
+		int i=this.slot(key);
+		while(this.keys[i]!=EMPTY) {
+			if(this.keys[i]==key)
+				return this.values[i];
+			i=(i+1)&mask;
+		}
+		this.keys[i]=key;
+		this.values[i]=value;
+		this.size++;
+		if(2*this.size>this.keys.length)
+			this.rehash(2*this.keys.length);
+		return -1;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys=this.keys;
+		int[] oldValues=this.values;
+		this.allocate(capacity);
+
+		int mask=capacity-1;
+		for(int j=0;j<oldKeys.length;j++) {
+			if(oldKeys[j]!=EMPTY) {
+				int i=this.slot(oldKeys[j]);
+				while(this.keys[i]!=EMPTY)
+					i=(i+1)&mask;
+				this.keys[i]=oldKeys[j];
+				this.values[i]=oldValues[j];
+				this.size++;
+			}
+		}
+	}
+
+	/**
+	 * Return the number of edges stored in the map
+	 */
+	public int size() {
+		return this.size;
+	}
+
+}
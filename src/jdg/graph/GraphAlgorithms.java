@@ -56,7 +56,7 @@ public class GraphAlgorithms {
     				if(vertexExists[v.index]==true) { // add edge (u', v') if both vertices exist in G'
     					Node vS=subgraph.getNode(vertexPermutation[v.index]); // vertex v' in G'
     					
-    	    			if(uS!=vS && g.adjacent(uS, vS)==false && g.adjacent(vS, uS)==false) {
+    	    			if(uS!=vS && g.adjacent(uS, vS)==false) {
     	    				g.addEdge(uS, vS); // addEdge already adds the two edges (v1, v2) and (v2, v1)
     	    			}
     				}
@@ -107,4 +107,72 @@ public class GraphAlgorithms {
     	return result;
     }
 
+    /**
+     * Given an input graph G (in CSR format), extract and return the induced sub-graph G', having a given sub-set of vertices
+     * <p>
+     * Remark: the vertices of G' are re-indexed from 0..n'-1, preserving their relative order in G
+     * 
+     * @param g  the input graph
+     * @param vertexExists[]  an array (boolean) saying whether a given node must appear in the sub-graph G'
+     * 
+     * @return the (induced) sub-graph G'
+     */		   
+    public static CSRGraph extractSubGraph(CSRGraph g, boolean[] vertexExists){
+    	if(g==null || vertexExists==null)
+    		return null;
+    	if(g.sizeVertices()!=vertexExists.length)
+    		throw new Error("Error: the number of vertices is wrong: "+g.sizeVertices()+" versus "+vertexExists.length);
+    	
+    	int vertexCount=0; // number of vertices of the sub-graph
+    	int[] vertexPermutation=new int[vertexExists.length]; // array storing the index mapping between the input graph and the sub-graph
+    	for(int i=0;i<vertexExists.length;i++) { 
+    		if(vertexExists[i]==true)
+    			vertexPermutation[i]=vertexCount++;
+    		else
+    			vertexPermutation[i]=-1; // the old node (in the original graph) will be removed
+    	}
+    	
+    	int[] src=new int[g.sizeEdges()];
+    	int[] dst=new int[g.sizeEdges()];
+    	int edgeCount=0;
+    	for(int j=0;j<g.sizeEdges();j++) { // edges are visited according to their index
+    		int u=g.edgeSource(j), v=g.edgeTarget(j);
+    		if(vertexExists[u]==true && vertexExists[v]==true) {
+    			src[edgeCount]=vertexPermutation[u];
+    			dst[edgeCount]=vertexPermutation[v];
+    			edgeCount++;
+    		}
+    	}
+    	
+    	return CSRGraph.fromEdges(vertexCount, src, dst, edgeCount);
+    }
+
+    /**
+     * Given two input graphs G1, G2 (in CSR format) and a vertex U, extract from G2 the sub-graph induced by the
+     * vertices of the connected component of G1 containing U
+     * <p>
+     * Remark: the graphs G1 and G2 are assumed to be undirected, and having the same number of nodes
+     * 
+     * @param g1  first input graph
+     * @param g2  second input graph
+     * @param indexU  index of a vertex in G1
+     * 
+     * @return the (induced) sub-graph G'
+     */		   
+    public static CSRGraph extractComponent(CSRGraph g1, int indexU, CSRGraph g2){
+    	if(g1==null || g2==null || g1.sizeVertices()!=g2.sizeVertices())
+    		throw new Error("Error: the number of vertices is wrong: "+g1.sizeVertices()+" versus "+g2.sizeVertices());
+    	
+    	int[] componentC1=g1.findConnectedComponent(indexU); // connected sub-graph C1 in G1
+    	
+    	boolean[] vertexExists=new boolean[g1.sizeVertices()];
+    	for(int v: componentC1)
+    		vertexExists[v]=true; // set value TRUE, for those vertices which belong to C1
+    	
+    	CSRGraph result=extractSubGraph(g2, vertexExists); // the result (sub-graph of G2)
+    	
+    	System.out.println("Extracted connected component of size "+componentC1.length);
+    	return result;
+    }
+
 }
@@ -0,0 +1,541 @@
+package jdg.graph;
+
+import java.util.Arrays;
+
+/**
+ * Planarity test and planar embedding of a graph, based on the Left-Right planarity criterion
+ * (de Fraysseix and Rosenstiehl), following the formulation of U. Brandes ("The Left-Right Planarity Test"). <br>
+ * <br>
+ * The algorithm performs three depth-first traversals: <br>
+ * -) orientation: compute a DFS orientation, together with lowpoints and nesting depths of the edges <br>
+ * -) testing: process the constraints between return edges (stack of conflict pairs), assigning edges to the left or right side <br>
+ * -) embedding: compute the cyclic order of neighbors around each vertex (rotation system) <br>
+ * <br>
+ * All traversals are iterative and use primitive arrays: the running time is O(n+m)
+ * (adjacency lists are sorted by nesting depth with a bucket sort). <br>
+ * <br>
+ * Remark: the half-edge (u, v) is identified by the position 'k' of 'v' in the neighbor list of 'u' in the CSR representation
+ * (<tt>g.targets[k]=v</tt>, with <tt>g.offsets[u]&lt;=k&lt;g.offsets[u+1]</tt>).
+ */
+public class LRPlanarity {
+	/** the input graph */
+	public CSRGraph g;
+
+	/** the rotation system: next half-edge in clockwise (resp. counter-clockwise) order around the source vertex */
+	public int[] cw, ccw;
+	/** for each vertex, a half-edge having it as source (-1 for isolated vertices) */
+	public int[] first;
+
+	// orientation of the edges (DFS orientation)
+	private int[] height, parentEdge, roots;
+	private int nRoots=0;
+	private int[] source, target;
+	private int[] lowpt, lowpt2, nestingDepth;
+	/** outgoing edges of each vertex (in the DFS orientation), sorted by nesting depth */
+	private int[] outOffsets, outEdges;
+
+	// testing phase
+	private int[] ref, side, stackBottom, lowptEdge;
+	/** stack of conflict pairs: each pair stores the intervals [low, high] (left and right) of return edges */
+	private int[] leftLow, leftHigh, rightLow, rightHigh;
+	private int top=0;
+
+	// embedding phase
+	private int[] leftRef, rightRef;
+	/** for each edge, its half-edges having as source the smaller and larger extremity */
+	private int[] halfedgeA, halfedgeB;
+
+	/** auxiliary arrays for the iterative traversals */
+	private int[] dfsStack, next;
+	private boolean[] skip;
+
+	public LRPlanarity(CSRGraph g) {
+		this.g=g;
+	}
+
+	/**
+	 * Test whether the graph is planar, and compute a planar embedding (stored in <tt>cw</tt>, <tt>ccw</tt> and <tt>first</tt>)
+	 *
+	 * @return true if the graph is planar
+	 */
+	public boolean embed() {
+		int n=this.g.n, m=this.g.m;
+		if(n>2 && m>3*n-6)
+			return false;
+
+		this.height=new int[n];
+		this.parentEdge=new int[n];
+		this.roots=new int[n];
+		Arrays.fill(this.height, -1);
+		Arrays.fill(this.parentEdge, -1);
+		this.source=new int[m];
+		this.target=new int[m];
+		Arrays.fill(this.source, -1);
+		this.lowpt=new int[m];
+		this.lowpt2=new int[m];
+		this.nestingDepth=new int[m];
+		this.dfsStack=new int[2*n+2];
+		this.next=new int[n];
+
+		// orientation
+		this.skip=new boolean[2*m];
+		for(int v=0;v<n;v++)
+			this.next[v]=this.g.offsets[v];
+		for(int v=0;v<n;v++) {
+			if(this.height[v]<0) {
+				this.height[v]=0;
+				this.roots[this.nRoots++]=v;
+				this.orient(v);
+			}
+		}
+		this.lowpt2=null;
+
+		// testing
+		this.sortOutgoingEdges();
+		this.ref=new int[m];
+		this.side=new int[m];
+		this.stackBottom=new int[m];
+		this.lowptEdge=new int[m];
+		Arrays.fill(this.ref, -1);
+		Arrays.fill(this.side, 1);
+		this.leftLow=new int[m+1];
+		this.leftHigh=new int[m+1];
+		this.rightLow=new int[m+1];
+		this.rightHigh=new int[m+1];
+		this.skip=new boolean[m];
+		for(int v=0;v<n;v++)
+			this.next[v]=this.outOffsets[v];
+		for(int r=0;r<this.nRoots;r++)
+			if(this.test(this.roots[r])==false)
+				return false;
+		this.leftLow=this.leftHigh=this.rightLow=this.rightHigh=null;
+		this.stackBottom=this.lowptEdge=null;
+
+		// embedding
+		int[] oldRef=new int[m];
+		int[] stack=new int[m+1];
+		Arrays.fill(oldRef, -1);
+		for(int e=0;e<m;e++)
+			this.nestingDepth[e]=this.sign(e, oldRef, stack)*this.nestingDepth[e];
+		this.sortOutgoingEdges();
+		this.computeHalfedges();
+		this.cw=new int[2*m];
+		this.ccw=new int[2*m];
+		this.first=new int[n];
+		Arrays.fill(this.first, -1);
+		for(int v=0;v<n;v++) { // initial embedding: outgoing edges, sorted by (signed) nesting depth
+			int previous=-1;
+			for(int k=this.outOffsets[v];k<this.outOffsets[v+1];k++) {
+				int h=this.halfedge(v, this.outEdges[k]);
+				this.addHalfedgeCW(v, h, previous);
+				previous=h;
+			}
+		}
+		this.leftRef=new int[n];
+		this.rightRef=new int[n];
+		for(int v=0;v<n;v++)
+			this.next[v]=this.outOffsets[v];
+		for(int r=0;r<this.nRoots;r++)
+			this.computeEmbedding(this.roots[r]);
+
+		this.height=this.parentEdge=this.roots=null;
+		this.lowpt=this.nestingDepth=this.ref=this.side=null;
+		this.leftRef=this.rightRef=this.dfsStack=this.next=null;
+		this.skip=null;
+		return true;
+	}
+
+	/**
+	 * Compute the DFS orientation of the edges, lowpoints and nesting depths (iterative DFS starting from 'root')
+	 */
+	private void orient(int root) {
+		int size=0;
+		this.dfsStack[size++]=root;
+		while(size>0) {
+			int v=this.dfsStack[--size];
+			int e=this.parentEdge[v];
+			for(;this.next[v]<this.g.offsets[v+1];this.next[v]++) {
+				int k=this.next[v];
+				int w=this.g.targets[k];
+				int vw=this.g.edgeIds[k];
+				if(this.skip[k]==false) {
+					if(this.source[vw]>=0) // the edge is already oriented
+						continue;
+					this.source[vw]=v;
+					this.target[vw]=w;
+					this.lowpt[vw]=this.height[v];
+					this.lowpt2[vw]=this.height[v];
+					if(this.height[w]<0) { // tree edge: visit 'w', and come back to 'v' later
+						this.parentEdge[w]=vw;
+						this.height[w]=this.height[v]+1;
+						this.dfsStack[size++]=v;
+						this.dfsStack[size++]=w;
+						this.skip[k]=true;
+						break;
+					}
+					this.lowpt[vw]=this.height[w]; // back edge
+				}
+				// nesting depth
+				this.nestingDepth[vw]=2*this.lowpt[vw];
+				if(this.lowpt2[vw]<this.height[v]) // chordal edge
+					this.nestingDepth[vw]++;
+				// update the lowpoints of the parent edge
+				if(e>=0) {
+					if(this.lowpt[vw]<this.lowpt[e]) {
+						this.lowpt2[e]=Math.min(this.lowpt[e], this.lowpt2[vw]);
+						this.lowpt[e]=this.lowpt[vw];
+					}
+					else if(this.lowpt[vw]>this.lowpt[e])
+						this.lowpt2[e]=Math.min(this.lowpt2[e], this.lowpt[vw]);
+					else
+						this.lowpt2[e]=Math.min(this.lowpt2[e], this.lowpt2[vw]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sort the outgoing edges of every vertex by nesting depth (bucket sort, in O(n+m) time)
+	 */
+	private void sortOutgoingEdges() {
+		int n=this.g.n, m=this.g.m;
+		int shift=2*n+2; // nesting depths lie in [-(2n+1), 2n+1]
+		int[] count=new int[2*shift+1];
+		for(int e=0;e<m;e++)
+			count[this.nestingDepth[e]+shift+1]++;
+		for(int i=1;i<count.length;i++)
+			count[i]+=count[i-1];
+		int[] sorted=new int[m];
+		for(int e=0;e<m;e++)
+			sorted[count[this.nestingDepth[e]+shift]++]=e;
+
+		this.outOffsets=new int[n+1];
+		for(int e=0;e<m;e++)
+			this.outOffsets[this.source[e]+1]++;
+		for(int v=0;v<n;v++)
+			this.outOffsets[v+1]+=this.outOffsets[v];
+		this.outEdges=new int[m];
+		int[] fill=Arrays.copyOf(this.outOffsets, n);
+		for(int e: sorted) // edges are distributed in sorted order
+			this.outEdges[fill[this.source[e]]++]=e;
+	}
+
+	/**
+	 * Testing phase (iterative DFS starting from 'root')
+	 *
+	 * @return false if the graph is not planar
+	 */
+	private boolean test(int root) {
+		int size=0;
+		this.dfsStack[size++]=root;
+		while(size>0) {
+			int v=this.dfsStack[--size];
+			int e=this.parentEdge[v];
+			boolean skipFinal=false;
+			for(;this.next[v]<this.outOffsets[v+1];this.next[v]++) {
+				int ei=this.outEdges[this.next[v]];
+				int w=this.target[ei];
+				if(this.skip[ei]==false) {
+					this.stackBottom[ei]=this.top;
+					if(ei==this.parentEdge[w]) { // tree edge
+						this.dfsStack[size++]=v;
+						this.dfsStack[size++]=w;
+						this.skip[ei]=true;
+						skipFinal=true;
+						break;
+					}
+					this.lowptEdge[ei]=ei; // back edge
+					this.push(-1, -1, ei, ei);
+				}
+				// integrate new return edges
+				if(this.lowpt[ei]<this.height[v]) {
+					if(this.next[v]==this.outOffsets[v]) // first outgoing edge
+						this.lowptEdge[e]=this.lowptEdge[ei];
+					else if(this.addConstraints(ei, e)==false)
+						return false;
+				}
+			}
+			if(skipFinal==false && e>=0)
+				this.removeBackEdges(e);
+		}
+		return true;
+	}
+
+	private void push(int ll, int lh, int rl, int rh) {
+		this.leftLow[this.top]=ll;
+		this.leftHigh[this.top]=lh;
+		this.rightLow[this.top]=rl;
+		this.rightHigh[this.top]=rh;
+		this.top++;
+	}
+
+	/** says whether the interval [low, high] conflicts with the edge 'b' */
+	private boolean conflicting(int low, int high, int b) {
+		return high>=0 && this.lowpt[high]>this.lowpt[b];
+	}
+
+	/** return the lowest lowpoint of the conflict pair at position 'i' in the stack */
+	private int lowest(int i) {
+		if(this.leftLow[i]<0 && this.leftHigh[i]<0)
+			return this.lowpt[this.rightLow[i]];
+		if(this.rightLow[i]<0 && this.rightHigh[i]<0)
+			return this.lowpt[this.leftLow[i]];
+		return Math.min(this.lowpt[this.leftLow[i]], this.lowpt[this.rightLow[i]]);
+	}
+
+	/**
+	 * Add the constraints of the edge 'ei' (outgoing from the target of 'e')
+	 *
+	 * @return false if the graph is not planar
+	 */
+	private boolean addConstraints(int ei, int e) {
+		int pLL=-1, pLH=-1, pRL=-1, pRH=-1; // the new conflict pair P
+
+		// merge the return edges of 'ei' into P.right
+		do {
+			this.top--;
+			int qLL=this.leftLow[this.top], qLH=this.leftHigh[this.top];
+			int qRL=this.rightLow[this.top], qRH=this.rightHigh[this.top];
+			if(qLL>=0 || qLH>=0) { // swap the intervals
+				int t=qLL; qLL=qRL; qRL=t;
+				t=qLH; qLH=qRH; qRH=t;
+			}
+			if(qLL>=0 || qLH>=0)
+				return false;
+			if(this.lowpt[qRL]>this.lowpt[e]) { // merge intervals
+				if(pRL<0 && pRH<0) // topmost interval
+					pRH=qRH;
+				else
+					this.ref[pRL]=qRH;
+				pRL=qRL;
+			}
+			else // align
+				this.ref[qRL]=this.lowptEdge[e];
+		} while(this.top!=this.stackBottom[ei]);
+
+		// merge the conflicting return edges of the previous outgoing edges into P.left
+		while(this.top>0 && (this.conflicting(this.leftLow[this.top-1], this.leftHigh[this.top-1], ei)
+				|| this.conflicting(this.rightLow[this.top-1], this.rightHigh[this.top-1], ei))) {
+			this.top--;
+			int qLL=this.leftLow[this.top], qLH=this.leftHigh[this.top];
+			int qRL=this.rightLow[this.top], qRH=this.rightHigh[this.top];
+			if(this.conflicting(qRL, qRH, ei)) { // swap the intervals
+				int t=qLL; qLL=qRL; qRL=t;
+				t=qLH; qLH=qRH; qRH=t;
+			}
+			if(this.conflicting(qRL, qRH, ei))
+				return false;
+			// merge the interval below lowpt(ei) into P.right
+			if(pRL>=0)
+				this.ref[pRL]=qRH;
+			if(qRL>=0)
+				pRL=qRL;
+			if(pLL<0 && pLH<0) // topmost interval
+				pLH=qLH;
+			else if(pLL>=0)
+				this.ref[pLL]=qLH;
+			pLL=qLL;
+		}
+		if(pLL>=0 || pLH>=0 || pRL>=0 || pRH>=0)
+			this.push(pLL, pLH, pRL, pRH);
+		return true;
+	}
+
+	/**
+	 * Remove the back edges ending at the source of 'e' (the parent of the current vertex)
+	 */
+	private void removeBackEdges(int e) {
+		int u=this.source[e];
+		// drop entire conflict pairs
+		while(this.top>0 && this.lowest(this.top-1)==this.height[u]) {
+			this.top--;
+			if(this.leftLow[this.top]>=0)
+				this.side[this.leftLow[this.top]]=-1;
+		}
+		if(this.top>0) { // one more conflict pair to consider
+			int i=this.top-1;
+			// trim the left interval
+			while(this.leftHigh[i]>=0 && this.target[this.leftHigh[i]]==u)
+				this.leftHigh[i]=this.ref[this.leftHigh[i]];
+			if(this.leftHigh[i]<0 && this.leftLow[i]>=0) { // just emptied
+				this.ref[this.leftLow[i]]=this.rightLow[i];
+				this.side[this.leftLow[i]]=-1;
+				this.leftLow[i]=-1;
+			}
+			// trim the right interval
+			while(this.rightHigh[i]>=0 && this.target[this.rightHigh[i]]==u)
+				this.rightHigh[i]=this.ref[this.rightHigh[i]];
+			if(this.rightHigh[i]<0 && this.rightLow[i]>=0) { // just emptied
+				this.ref[this.rightLow[i]]=this.leftLow[i];
+				this.side[this.rightLow[i]]=-1;
+				this.rightLow[i]=-1;
+			}
+		}
+		// the side of 'e' is the side of a highest return edge
+		if(this.lowpt[e]<this.height[u]) {
+			int hl=this.leftHigh[this.top-1], hr=this.rightHigh[this.top-1];
+			if(hl>=0 && (hr<0 || this.lowpt[hl]>this.lowpt[hr]))
+				this.ref[e]=hl;
+			else
+				this.ref[e]=hr;
+		}
+	}
+
+	/**
+	 * Compute the side of the edge 'e' (following the chain of references, iteratively)
+	 */
+	private int sign(int e, int[] oldRef, int[] stack) {
+		int size=0;
+		stack[size++]=e;
+		while(size>0) {
+			int f=stack[--size];
+			if(this.ref[f]>=0) { // first compute the side of ref(f)
+				stack[size++]=f;
+				stack[size++]=this.ref[f];
+				oldRef[f]=this.ref[f];
+				this.ref[f]=-1;
+			}
+			else if(oldRef[f]>=0) {
+				this.side[f]=this.side[f]*this.side[oldRef[f]];
+				oldRef[f]=-1;
+			}
+		}
+		return this.side[e];
+	}
+
+	/**
+	 * Compute, for each edge, the half-edges having as source its smaller and larger extremity
+	 */
+	private void computeHalfedges() {
+		this.halfedgeA=new int[this.g.m];
+		this.halfedgeB=new int[this.g.m];
+		for(int v=0;v<this.g.n;v++) {
+			for(int k=this.g.offsets[v];k<this.g.offsets[v+1];k++) {
+				int j=this.g.edgeIds[k];
+				if(v==this.g.ends[2*j])
+					this.halfedgeA[j]=k;
+				else
+					this.halfedgeB[j]=k;
+			}
+		}
+	}
+
+	/** return the half-edge of edge 'j' having 'v' as source */
+	private int halfedge(int v, int j) {
+		if(v==this.g.ends[2*j])
+			return this.halfedgeA[j];
+		return this.halfedgeB[j];
+	}
+
+	/**
+	 * Return the half-edge opposite to 'h'
+	 */
+	public int opposite(int h) {
+		int j=this.g.edgeIds[h];
+		if(this.halfedgeA[j]==h)
+			return this.halfedgeB[j];
+		return this.halfedgeA[j];
+	}
+
+	/** insert the half-edge 'h' (with source 'v') just after 'reference' in clockwise order */
+	private void addHalfedgeCW(int v, int h, int reference) {
+		if(this.first[v]<0) { // first half-edge around 'v'
+			this.cw[h]=h;
+			this.ccw[h]=h;
+			this.first[v]=h;
+			return;
+		}
+		int cwReference=this.cw[reference];
+		this.cw[reference]=h;
+		this.ccw[h]=reference;
+		this.cw[h]=cwReference;
+		this.ccw[cwReference]=h;
+	}
+
+	/** insert the half-edge 'h' (with source 'v') just before 'reference' in clockwise order */
+	private void addHalfedgeCCW(int v, int h, int reference) {
+		if(this.first[v]<0) {
+			this.addHalfedgeCW(v, h, -1);
+			return;
+		}
+		this.addHalfedgeCW(v, h, this.ccw[reference]);
+		if(reference==this.first[v])
+			this.first[v]=h;
+	}
+
+	/** insert the half-edge 'h' (with source 'v') as first half-edge around 'v' */
+	private void addHalfedgeFirst(int v, int h) {
+		if(this.first[v]<0)
+			this.addHalfedgeCW(v, h, -1);
+		else
+			this.addHalfedgeCCW(v, h, this.first[v]);
+	}
+
+	/**
+	 * Embedding phase: insert the half-edges (w, v), for every oriented edge (v, w) (iterative DFS starting from 'root')
+	 */
+	private void computeEmbedding(int root) {
+		int size=0;
+		this.dfsStack[size++]=root;
+		while(size>0) {
+			int v=this.dfsStack[--size];
+			while(this.next[v]<this.outOffsets[v+1]) {
+				int ei=this.outEdges[this.next[v]];
+				this.next[v]++;
+				int w=this.target[ei];
+				int h=this.halfedge(w, ei); // the half-edge (w, v)
+				if(ei==this.parentEdge[w]) { // tree edge
+					this.addHalfedgeFirst(w, h);
+					this.leftRef[v]=this.halfedge(v, ei);
+					this.rightRef[v]=this.halfedge(v, ei);
+					this.dfsStack[size++]=v;
+					this.dfsStack[size++]=w;
+					break;
+				}
+				if(this.side[ei]==1) // back edge: right side
+					this.addHalfedgeCW(w, h, this.rightRef[w]);
+				else { // back edge: left side
+					this.addHalfedgeCCW(w, h, this.leftRef[w]);
+					this.leftRef[w]=h;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Compute the faces of the planar embedding: the face following the half-edge (u, v) continues with
+	 * the half-edge (v, w), where 'w' precedes 'u' in clockwise order around 'v'
+	 *
+	 * @return the faces, each one given by the sequence of its vertices
+	 */
+	public int[][] computeFaces() {
+		int[] owner=new int[2*this.g.m]; // source vertex of each half-edge
+		for(int v=0;v<this.g.n;v++)
+			for(int k=this.g.offsets[v];k<this.g.offsets[v+1];k++)
+				owner[k]=v;
+
+		boolean[] visited=new boolean[2*this.g.m];
+		int nFaces=this.g.m-this.g.n+2; // Euler formula (for connected graphs)
+		int[][] faces=new int[Math.max(nFaces, 1)][];
+		int[] face=new int[16];
+		int count=0;
+		for(int h=0;h<2*this.g.m;h++) {
+			if(visited[h]==true)
+				continue;
+			int k=0;
+			int p=h;
+			do {
+				visited[p]=true;
+				if(k==face.length)
+					face=Arrays.copyOf(face, 2*k);
+				face[k++]=owner[p];
+				p=this.ccw[this.opposite(p)];
+			} while(p!=h);
+			if(count==faces.length)
+				faces=Arrays.copyOf(faces, 2*count);
+			faces[count++]=Arrays.copyOf(face, k);
+		}
+		return Arrays.copyOf(faces, count);
+	}
+
+}
@@ -0,0 +1,171 @@
+package jdg.graph;
+
+import java.util.Arrays;
+
+/**
+ * A set of neighbor indices, supporting fast adjacency tests. <br>
+ * <br>
+ * The representation is chosen automatically, depending on the degree: <br>
+ * -) small degree (at most <tt>MAX_SORTED_SIZE</tt> neighbors): a sorted array of indices, with binary search <br>
+ * -) high degree (hubs): a hash set of indices, with open addressing (linear probing) <br>
+ * <br>
+ * Inserting 'd' neighbors thus takes O(d) time overall (in expectation) for high degree nodes.
+ */
+public class NeighborSet {
+	/** maximal size of a set stored as a sorted array */
+	public static final int MAX_SORTED_SIZE=16;
+	/** marks an empty slot in the hash table (indices are non negative) */
+	private static final int EMPTY=-1;
+
+	/** sorted array of indices (first 'size' entries) or hash table */
+	private int[] elements=null;
+	/** number of stored indices */
+	private int size=0;
+	/** says whether the indices are stored in a hash table */
+	private boolean hashed=false;
+
+	/**
+	 * Return the number of stored indices
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Check whether the index 'v' belongs to the set
+	 */
+	public boolean contains(int v) {
+		if(this.elements==null)
+			return false;
+		if(this.hashed==false)
+			return Arrays.binarySearch(this.elements, 0, this.size, v)>=0;
+
+		int mask=this.elements.length-1;
+		int i=slot(v, mask);
+		while(this.elements[i]!=EMPTY) {
+			if(this.elements[i]==v)
+				return true;
+			i=(i+1)&mask;
+		}
+		return false;
+	}
+
+	/**
+	 * Add the index 'v' to the set
+	 *
+	 * @return true if 'v' has been added, false if 'v' was already in the set
+	 */
+	public boolean add(int v) {
+		if(v<0)
+			throw new Error("Error: negative node index "+v);
+		if(this.elements==null)
+			this.elements=new int[4];
+
+		if(this.hashed==false) {
+			int k=Arrays.binarySearch(this.elements, 0, this.size, v);
+			if(k>=0)
+				return false;
+			if(this.size==MAX_SORTED_SIZE) { // switch to the hash table representation
+				this.toHashTable(4*MAX_SORTED_SIZE);
+				return this.add(v);
+			}
+			k=-k-1; // insertion point
+			if(this.size==this.elements.length)
+				this.elements=Arrays.copyOf(this.elements, 2*this.size);
+			System.arraycopy(this.elements, k, this.elements, k+1, this.size-k);
+			this.elements[k]=v;
+			this.size++;
+			return true;
+		}
+
+		if(this.insert(v)==false)
+			return false;
+		this.size++;
+		if(2*this.size>this.elements.length) // the load factor is kept below 1/2
+			this.toHashTable(2*this.elements.length);
+		return true;
+	}
+
+	/**
+	 * Remove the index 'v' from the set
+	 *
+	 * @return true if 'v' has been removed, false if 'v' was not in the set
+	 */
+	public boolean remove(int v) {
+		if(this.elements==null)
+			return false;
+		if(this.hashed==false) {
+			int k=Arrays.binarySearch(this.elements, 0, this.size, v);
+			if(k<0)
+				return false;
+			System.arraycopy(this.elements, k+1, this.elements, k, this.size-k-1);
+			this.size--;
+			return true;
+		}
+
+		int mask=this.elements.length-1;
+		int i=slot(v, mask);
+		while(this.elements[i]!=v) {
+			if(this.elements[i]==EMPTY)
+				return false;
+			i=(i+1)&mask;
+		}
+		// backward shift deletion: move back the entries of the probe sequence following slot 'i'
+		int j=i;
+		while(true) {
+			j=(j+1)&mask;
+			if(this.elements[j]==EMPTY)
+				break;
+			int home=slot(this.elements[j], mask);
+			if(((j-home)&mask)>=((j-i)&mask)) { // the entry at 'j' can be moved to the free slot 'i'
+				this.elements[i]=this.elements[j];
+				i=j;
+			}
+		}
+		this.elements[i]=EMPTY;
+		this.size--;
+		return true;
+	}
+
+	/**
+	 * Copy all indices in a hash table of given capacity (a power of 2)
+	 */
+	private void toHashTable(int capacity) {
+		int[] old=this.elements;
+		boolean wasHashed=this.hashed;
+		this.elements=new int[capacity];
+		Arrays.fill(this.elements, EMPTY);
+		this.hashed=true;
+
+		if(wasHashed==false) {
+			for(int k=0;k<this.size;k++)
+				this.insert(old[k]);
+		}
+		else {
+			for(int k=0;k<old.length;k++)
+				if(old[k]!=EMPTY)
+					this.insert(old[k]);
+		}
+	}
+
+	/**
+	 * Insert an index in the hash table (without updating the size)
+	 */
+	private boolean insert(int v) {
+		int mask=this.elements.length-1;
+		int i=slot(v, mask);
+		while(this.elements[i]!=EMPTY) {
+			if(this.elements[i]==v)
+				return false;
+			i=(i+1)&mask;
+		}
+		this.elements[i]=v;
+		return true;
+	}
+
+	private static int slot(int v, int mask) {
+		int h=v*0x9E3779B9;
+		return (h^(h>>>16))&mask;
+	}
+
+}
@@ -13,6 +13,8 @@ public class Node {
 
 	/** list of neighbors of the current node */
 	public ArrayList<Node> neighbors=null;
+	/** indices of the neighbors of the current node, for fast adjacency tests (sorted array or hash set, depending on the degree) */
+	private NeighborSet neighborIndices=new NeighborSet();
 	/** label of the node: vertex label can differ from vertex index */
 	public String label;
 	/** tag of node: useful for "marking" a node */
@@ -43,17 +45,25 @@ public class Node {
 	    	this.label=label;
 	    }
 
+	    /**
+	     * Add a neighbor (loops and multiple edges are not allowed) <br>
+	     * The test for existing neighbors takes O(log d) time for small degree 'd', and O(1) expected time for high degree nodes
+	     */
 	    public void addNeighbor(Node v) {
-	    	if(v!=this && this.neighbors.contains(v)==false)
+	    	if(v!=this && this.neighborIndices.add(v.index)==true)
 	    		this.neighbors.add(v);
 	    }
 
 	    public void removeNeighbor(Node v) {
-	    	this.neighbors.remove(v);
+	    	if(this.neighborIndices.remove(v.index)==true)
+	    		this.neighbors.remove(v);
 	    }
 
+	    /**
+	     * Check whether 'v' is a neighbor of the current node (nodes are compared according to their index)
+	     */
 	    public boolean adjacent(Node v) {
-	    	return this.neighbors.contains(v);
+	    	return this.neighborIndices.contains(v.index);
 	    }
 	    
 	    /**
@@ -0,0 +1,93 @@
+package jdg.io;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import jdg.graph.CSRGraph;
+
+/**
+ * Provides methods for dealing with graphs stored as edge lists (.edges format): <br>
+ * each line stores an edge 'u v' (vertex indices between 0..n-1), separated by blanks or commas.
+ * Lines starting with '#' or '%' are comments, and additional columns (such as weights) are ignored. <br>
+ * <br>
+ * The file is memory mapped and parsed in a single pass, directly from bytes: the number of vertices is inferred
+ * from the largest vertex index.
+ */
+public class GraphReader_EDGES {
+
+    /**
+     * Read a graph stored as an edge list, and return its compact (CSR) representation <br>
+     *
+     * Remark: loops and multiple edges are discarded
+     */
+    public static CSRGraph readCSR(String filename) {
+    	System.out.print("Reading graph in EDGES format ("+filename+")...");
+    	long startTime=System.nanoTime();
+    	int[] src=new int[16];
+    	int[] dst=new int[16];
+    	int count=0;
+    	int max=-1; // largest vertex index
+
+    	try(RandomAccessFile file=new RandomAccessFile(filename, "r"); FileChannel channel=file.getChannel()) {
+    		long size=channel.size();
+    		long offset=0;
+    		while(offset<size) { // a mapped region has less than 2^31 bytes: large files are mapped by regions of entire lines
+    			long length=Math.min(size-offset, Integer.MAX_VALUE);
+    			MappedByteBuffer b=channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+    			int limit=(int)length;
+    			if(offset+length<size) { // the region ends with the last complete line
+    				while(limit>0 && b.get(limit-1)!='\n')
+    					limit--;
+    				if(limit==0)
+    					throw new Error("Error: line too long in file "+filename);
+    			}
+
+    			int p=0;
+    			while(p<limit) {
+    				byte c=b.get(p);
+    				if(c==' ' || c=='\t' || c=='\r' || c=='\n' || c==',') { // skip separators and empty lines
+    					p++;
+    					continue;
+    				}
+    				if(c!='#' && c!='%') {
+    					if(count==src.length) {
+    						src=Arrays.copyOf(src, 2*count);
+    						dst=Arrays.copyOf(dst, 2*count);
+    					}
+    					int[] pair=src;
+    					for(int t=0;t<2;t++) { // read two vertex indices
+    						while(p<limit && (b.get(p)==' ' || b.get(p)=='\t' || b.get(p)==','))
+    							p++;
+    						int value=0, digits=0;
+    						while(p<limit && b.get(p)>='0' && b.get(p)<='9') {
+    							value=10*value+(b.get(p)-'0');
+    							digits++;
+    							p++;
+    						}
+    						if(digits==0)
+    							throw new Error("Error: wrong EDGES format (vertex index expected, edge "+count+")");
+    						pair[count]=value;
+    						max=Math.max(max, value);
+    						pair=dst;
+    					}
+    					count++;
+    				}
+    				while(p<limit && b.get(p)!='\n') // skip the rest of the line (additional columns or comments)
+    					p++;
+    			}
+    			offset+=limit;
+    		}
+    	} catch (IOException ex) {
+    		throw new Error("Error: cannot read file "+filename+" ("+ex.getMessage()+")");
+    	}
+
+    	CSRGraph g=CSRGraph.fromEdges(max+1, src, dst, count); // loops and multiple edges are discarded
+    	double time=(System.nanoTime()-startTime)/1000000.;
+    	System.out.println("done ("+g.sizeVertices()+" vertices, "+g.sizeEdges()+" edges, "+time+" ms)");
+    	return g;
+    }
+
+}
@@ -1,10 +1,18 @@
 package jdg.io;
 
 import java.awt.Color;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 import jdg.graph.AdjacencyListGraph;
+import jdg.graph.CSRGraph;
 import jdg.graph.Node;
 import tc.TC;
 import Jcg.geometry.Point_3;
@@ -13,6 +21,8 @@ import Jcg.geometry.Point_3;
  * Provides methods for dealing with graphs stored in Matrix Market format.
  */		   
 public class GraphReader_MTX {
+    /** approximate size of the chunks parsed in parallel (in bytes) */
+    private static final long CHUNK_SIZE=1<<22;
 
     /**
      * Read a graph stored in MTX format
@@ -63,7 +73,7 @@ public class GraphReader_MTX {
     			if(v1==null || v2==null) {
     				throw new Error("Error: wrong vertex indices "+index1+" "+index2);
     			}
-    			if(v1!=v2 && g.adjacent(v1, v2)==false && g.adjacent(v2, v1)==false) { // loops and multiple edges are not allowed
+    			if(v1!=v2 && g.adjacent(v1, v2)==false) { // loops and multiple edges are not allowed (fast adjacency test)
     				g.addEdge(v1, v2); // addEdge already adds the two edges (v1, v2) and (v2, v1)
     				i++;
     			}
@@ -75,5 +85,126 @@ public class GraphReader_MTX {
     	TC.lectureEntreeStandard();
     	return g;
     }
+
+    /**
+     * Read a graph stored in MTX format, and return its compact (CSR) representation <br>
+     * The pointer based graph is not built: edges are collected in primitive arrays <br>
+     * <br>
+     * The file is memory mapped and split into chunks (aligned on line ends), which are parsed in parallel: integers are
+     * directly decoded from bytes, and each chunk stores its edges in its own buffers. Buffers are concatenated in the order
+     * of the chunks, so that edge indices do not depend on the number of threads.
+     * 
+     * Remark: nodes have indices between 1..n
+     */		   
+    public static CSRGraph readCSR(String filename) { 
+    	System.out.print("Reading graph in MTX format ("+filename+")...");
+    	long startTime=System.nanoTime();
+    	int n;
+    	EdgeChunk[] chunks;
+    	try(RandomAccessFile file=new RandomAccessFile(filename, "r"); FileChannel channel=file.getChannel()) {
+    		// read file header (commented lines), and the line storing the number of vertices
+    		String ligne=file.readLine();
+    		while(ligne!=null && (ligne.trim().length()==0 || ligne.charAt(0)=='%'))
+    			ligne=file.readLine();
+    		if(ligne==null)
+    			throw new Error("Error: wrong MTX format (missing header)");
+    		String[] tabFrom=ligne.trim().split("\\s+");
+    		n=Integer.parseInt(tabFrom[0]); // number of vertices
+
+    		// split the file into chunks, aligned on line ends
+    		long start=file.getFilePointer(), end=channel.size();
+    		int nChunks=(int)Math.max(1, Math.min(4*Runtime.getRuntime().availableProcessors(), (end-start)/CHUNK_SIZE));
+    		nChunks=(int)Math.max(nChunks, (end-start)/Integer.MAX_VALUE+1); // a mapped region has less than 2^31 bytes
+    		long[] bounds=new long[nChunks+1];
+    		bounds[0]=start;
+    		bounds[nChunks]=end;
+    		for(int i=1;i<nChunks;i++) {
+    			long p=Math.max(bounds[i-1], start+(end-start)/nChunks*i);
+    			file.seek(p);
+    			while(p<end && file.read()!='\n') // move to the beginning of the next line
+    				p++;
+    			bounds[i]=Math.min(p+1, end);
+    		}
+
+    		chunks=new EdgeChunk[nChunks];
+    		for(int i=0;i<nChunks;i++)
+    			chunks[i]=new EdgeChunk(channel.map(FileChannel.MapMode.READ_ONLY, bounds[i], bounds[i+1]-bounds[i]));
+    		ForkJoinTask.invokeAll(chunks); // parse the chunks in parallel (common fork-join pool)
+    	} catch (IOException ex) {
+    		throw new Error("Error: cannot read file "+filename+" ("+ex.getMessage()+")");
+    	}
+
+    	// merge the edge buffers
+    	int count=0;
+    	for(EdgeChunk c: chunks)
+    		count+=c.count;
+    	int[] src=new int[count];
+    	int[] dst=new int[count];
+    	int k=0;
+    	for(EdgeChunk c: chunks) {
+    		System.arraycopy(c.src, 0, src, k, c.count);
+    		System.arraycopy(c.dst, 0, dst, k, c.count);
+    		k+=c.count;
+    	}
+    	chunks=null;
+    	
+    	CSRGraph g=CSRGraph.fromEdges(n, src, dst, count); // loops and multiple edges are discarded
+    	double time=(System.nanoTime()-startTime)/1000000.;
+    	System.out.println("done ("+g.sizeVertices()+" vertices, "+g.sizeEdges()+" edges, "+time+" ms)");
+    	return g;
+    }
+
+    /**
+     * Parse a chunk of an MTX file (a sequence of entire lines): for each line 'i j [value]', the edge (i-1, j-1) is stored
+     */
+    private static class EdgeChunk extends RecursiveAction {
+    	private static final long serialVersionUID=1L;
+    	ByteBuffer data;
+    	int[] src=new int[16], dst=new int[16];
+    	int count=0;
+
+    	EdgeChunk(ByteBuffer data) {
+    		this.data=data;
+    	}
+
+    	protected void compute() {
+    		ByteBuffer b=this.data;
+    		int limit=b.limit();
+    		int p=0;
+    		while(p<limit) {
+    			byte c=b.get(p);
+    			if(c==' ' || c=='\t' || c=='\r' || c=='\n') { // skip blank characters
+    				p++;
+    				continue;
+    			}
+    			if(c!='%') {
+    				if(this.count==this.src.length) {
+    					this.src=Arrays.copyOf(this.src, 2*this.count);
+    					this.dst=Arrays.copyOf(this.dst, 2*this.count);
+    				}
+    				// read two integers
+    				int[] pair=this.src;
+    				for(int t=0;t<2;t++) {
+    					while(p<limit && (b.get(p)==' ' || b.get(p)=='\t'))
+    						p++;
+    					int value=0, digits=0;
+    					while(p<limit && b.get(p)>='0' && b.get(p)<='9') {
+    						value=10*value+(b.get(p)-'0');
+    						digits++;
+    						p++;
+    					}
+    					if(digits==0)
+    						throw new Error("Error: wrong MTX format (vertex index expected)");
+    					pair[this.count]=value-1; // recall that vertices have indices in 1..n in MTX format
+    					pair=this.dst;
+    				}
+    				this.count++;
+    			}
+    			while(p<limit && b.get(p)!='\n') // skip the rest of the line (values and comments)
+    				p++;
+    		}
+    		this.data=null;
+    	}
+    }
  
 }
@@ -0,0 +1,170 @@
+package jdg.io;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import jdg.graph.CSRGraph;
+
+/**
+ * Provides methods for reading the graph (vertices and edges) of a mesh stored in OFF format, without building the mesh. <br>
+ * <br>
+ * The file is memory mapped and parsed directly from bytes: vertex coordinates are skipped, and faces are streamed.
+ * Each face (v0, v1, ..., vk-1) produces the keys of its edges (vi, vi+1), encoded as a pair (min, max) in a single long:
+ * keys are sorted, so that every undirected edge is emitted exactly once (no adjacency tests are performed). <br>
+ * <br>
+ * The faces can also be kept (see <tt>readGraphAndFaces()</tt>): they provide a planar embedding of the graph, without building the mesh.
+ */
+public class GraphReader_OFF {
+	/** the graph of the mesh */
+	public CSRGraph graph;
+	/** number of faces (if the faces are kept) */
+	public int nFaces=0;
+	/** the vertices of the 'i'-th face are faceVertices[k], for faceOffsets[i]&lt;=k&lt;faceOffsets[i+1] (null if the faces are not kept) */
+	public int[] faceOffsets, faceVertices;
+
+	/** the mapped file */
+	private MappedByteBuffer b;
+	private int position=0, limit;
+
+    /**
+     * Read the graph of a mesh stored in OFF format, and return its compact (CSR) representation <br>
+     *
+     * Remark: edges are indexed according to the lexicographic order of their extremities (u, v), with u&lt;v
+     */
+    public static CSRGraph readCSR(String filename) {
+    	return read(filename, false).graph;
+    }
+
+    /**
+     * Read the graph of a mesh stored in OFF format (as in <tt>readCSR()</tt>), and keep the faces of the mesh
+     * (see <tt>faceOffsets</tt> and <tt>faceVertices</tt>)
+     */
+    public static GraphReader_OFF readGraphAndFaces(String filename) {
+    	return read(filename, true);
+    }
+
+    /**
+     * Read the graph of a mesh stored in OFF format, and possibly its faces
+     */
+    private static GraphReader_OFF read(String filename, boolean keepFaces) {
+    	System.out.print("Reading graph in OFF format ("+filename+")...");
+    	long startTime=System.nanoTime();
+    	GraphReader_OFF reader=new GraphReader_OFF();
+    	long[] keys;
+    	int n, count=0;
+    	try(RandomAccessFile file=new RandomAccessFile(filename, "r"); FileChannel channel=file.getChannel()) {
+    		if(channel.size()>Integer.MAX_VALUE)
+    			throw new Error("Error: OFF file too large ("+filename+")");
+    		reader.b=channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    		reader.limit=(int)channel.size();
+    	} catch (IOException ex) {
+    		throw new Error("Error: cannot read file "+filename+" ("+ex.getMessage()+")");
+    	}
+
+    	// read the header: "OFF", followed by the number of vertices, faces and edges
+    	reader.skipBlanks();
+    	if(reader.position+3>reader.limit || reader.b.get(reader.position)!='O' || reader.b.get(reader.position+1)!='F' || reader.b.get(reader.position+2)!='F')
+    		throw new Error("Error: wrong OFF format (missing header)");
+    	reader.position+=3;
+    	n=reader.readInt();
+    	int f=reader.readInt();
+    	int e=reader.readInt();
+    	reader.skipLine();
+
+    	// skip the vertex coordinates (one vertex per line)
+    	for(int i=0;i<n;i++) {
+    		reader.skipBlanks();
+    		reader.skipLine();
+    	}
+
+    	// stream the faces
+    	keys=new long[Math.max(2*e, 16)];
+    	if(keepFaces==true) {
+    		reader.nFaces=f;
+    		reader.faceOffsets=new int[f+1];
+    		reader.faceVertices=new int[Math.max(2*e, 16)];
+    	}
+    	for(int i=0;i<f;i++) {
+    		int degree=reader.readInt();
+    		int first=reader.readInt(), previous=first;
+    		for(int j=1;j<=degree;j++) {
+    			int current=(j<degree) ? reader.readInt() : first;
+    			if(current<0 || current>=n)
+    				throw new Error("Error: wrong vertex index "+current+" (face "+i+")");
+    			if(count==keys.length)
+    				keys=Arrays.copyOf(keys, 2*count);
+    			keys[count++]=((long)Math.min(previous, current)<<32)|Math.max(previous, current);
+    			if(keepFaces==true) {
+    				if(count>reader.faceVertices.length)
+    					reader.faceVertices=Arrays.copyOf(reader.faceVertices, 2*count);
+    				reader.faceVertices[count-1]=previous; // the face vertices are stored as the keys (one per face edge)
+    			}
+    			previous=current;
+    		}
+    		if(keepFaces==true)
+    			reader.faceOffsets[i+1]=count;
+    		reader.skipLine(); // skip colors (if any)
+    	}
+    	reader.b=null;
+
+    	// sort the keys, and emit each edge once
+    	Arrays.sort(keys, 0, count);
+    	int[] src=new int[count];
+    	int[] dst=new int[count];
+    	int m=0;
+    	for(int k=0;k<count;k++) {
+    		if(k>0 && keys[k]==keys[k-1])
+    			continue;
+    		src[m]=(int)(keys[k]>>>32);
+    		dst[m]=(int)keys[k];
+    		m++;
+    	}
+
+    	CSRGraph g=CSRGraph.fromEdges(n, src, dst, m); // loops are discarded
+    	double time=(System.nanoTime()-startTime)/1000000.;
+    	System.out.println("done ("+g.sizeVertices()+" vertices, "+g.sizeEdges()+" edges, "+time+" ms)");
+    	reader.graph=g;
+    	return reader;
+    }
+
+    /** skip blank characters and comments (from '#' to the end of the line) */
+    private void skipBlanks() {
+    	while(this.position<this.limit) {
+    		byte c=this.b.get(this.position);
+    		if(c=='#')
+    			this.skipLine();
+    		else if(c==' ' || c=='\t' || c=='\r' || c=='\n')
+    			this.position++;
+    		else
+    			return;
+    	}
+    }
+
+    /** move to the beginning of the next line */
+    private void skipLine() {
+    	while(this.position<this.limit && this.b.get(this.position)!='\n')
+    		this.position++;
+    	this.position++;
+    }
+
+    /** read a non negative integer */
+    private int readInt() {
+    	this.skipBlanks();
+    	int value=0, digits=0;
+    	while(this.position<this.limit) {
+    		byte c=this.b.get(this.position);
+    		if(c<'0' || c>'9')
+    			break;
+    		value=10*value+(c-'0');
+    		digits++;
+    		this.position++;
+    	}
+    	if(digits==0)
+    		throw new Error("Error: wrong OFF format (integer expected at position "+this.position+")");
+    	return value;
+    }
+
+}
@@ -0,0 +1,454 @@
+package jdg.io;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A streaming (pull) reader for input instances stored in JSON format: <br>
+ * <tt>{ "nodes": [{"id": 0, "x": 1, "y": 0}, ...], "edges": [{"source": 0, "target": 1, "bends": [{"x": 0, "y": 4}, ...]}, ...],
+ * "width": 2, "height": 4, "bends": 2 }</tt> <br>
+ * <br>
+ * The file is parsed in a single pass, without building a JSON object tree: coordinates and edges are directly stored in
+ * primitive arrays (memory is linear in the size of the instance). Keys can appear in any order, and unknown keys are skipped. <br>
+ * No object is allocated per value: numbers are parsed in place, and keys are decoded in a reusable array (see <tt>matchKey()</tt>). <br>
+ * <br>
+ * Files whose name ends with ".gz" are decompressed on the fly (gzip format). <br>
+ * <br>
+ * Remark: the bend points of the 'i'-th edge are (bendX[k], bendY[k]), for <tt>bendOffsets[i]&lt;=k&lt;bendOffsets[i+1]</tt>,
+ * listed as in the input file (starting from the source of the edge)
+ */
+public class JSONInstanceReader {
+	/** size of the grid, and maximal number of bends per edge */
+	public int width=-1, height=-1, maxBends=-1;
+
+	/** number of vertices */
+	public int n=0;
+	/** vertex indices and coordinates (in the order of the input file) */
+	public int[] ids=new int[16], x=new int[16], y=new int[16];
+
+	/** number of edges (as listed in the input file: loops and multiple edges are not discarded) */
+	public int e=0;
+	/** extremities of the edges */
+	public int[] source=new int[16], target=new int[16];
+	/** says whether the bends of an edge are defined (the edge has a "bends" array, possibly empty) */
+	public boolean[] hasBends=new boolean[16];
+	/** bend points of the edges (see <tt>bendOffsets</tt>) */
+	public int[] bendOffsets=new int[17], bendX=new int[16], bendY=new int[16];
+	private int nBends=0;
+
+	/** input buffer */
+	private Reader reader;
+	private char[] buffer=new char[1<<16];
+	private int position=0, limit=0;
+	/** current line (for error messages) */
+	private int line=1;
+	/** the last string read, decoded in a reusable array (see <tt>readString()</tt>) */
+	private char[] string=new char[64];
+	private int stringLength=0;
+
+	/** keys of the input format */
+	private static final char[] NODES="nodes".toCharArray(), EDGES="edges".toCharArray(), WIDTH="width".toCharArray(),
+			HEIGHT="height".toCharArray(), BENDS="bends".toCharArray(), ID="id".toCharArray(), X="x".toCharArray(),
+			Y="y".toCharArray(), SOURCE="source".toCharArray(), TARGET="target".toCharArray();
+
+	/**
+	 * Read an input instance from a JSON file
+	 */
+	public JSONInstanceReader(String filename) {
+		try(InputStream file=new FileInputStream(filename);
+				InputStream in=filename.endsWith(".gz") ? new GZIPInputStream(file, 1<<16) : file;
+				Reader r=new InputStreamReader(in, StandardCharsets.UTF_8)) {
+			this.reader=r;
+			this.readInstance();
+		} catch (IOException ex) {
+			throw new Error("Error: cannot read file "+filename+" ("+ex.getMessage()+")");
+		}
+		this.reader=null;
+		this.buffer=null;
+		this.string=null;
+
+		if(this.width<0 || this.height<0 || this.maxBends<0)
+			throw new Error("Error: missing fields in JSON file (width, height or bends)");
+		this.ids=Arrays.copyOf(this.ids, this.n);
+		this.x=Arrays.copyOf(this.x, this.n);
+		this.y=Arrays.copyOf(this.y, this.n);
+		this.source=Arrays.copyOf(this.source, this.e);
+		this.target=Arrays.copyOf(this.target, this.e);
+		this.hasBends=Arrays.copyOf(this.hasBends, this.e);
+		this.bendOffsets=Arrays.copyOf(this.bendOffsets, this.e+1);
+		this.bendX=Arrays.copyOf(this.bendX, this.nBends);
+		this.bendY=Arrays.copyOf(this.bendY, this.nBends);
+	}
+
+	/**
+	 * Return the number of bends of the 'i'-th edge
+	 */
+	public int bendCount(int i) {
+		return this.bendOffsets[i+1]-this.bendOffsets[i];
+	}
+
+	/**
+	 * Parse the top level object
+	 */
+	private void readInstance() throws IOException {
+		this.expect('{');
+		if(this.peek()=='}') {
+			this.next();
+			return;
+		}
+		do {
+			this.readString();
+			this.expect(':');
+			if(this.matchKey(NODES))
+				this.readNodes();
+			else if(this.matchKey(EDGES))
+				this.readEdges();
+			else if(this.matchKey(WIDTH))
+				this.width=this.readInt();
+			else if(this.matchKey(HEIGHT))
+				this.height=this.readInt();
+			else if(this.matchKey(BENDS))
+				this.maxBends=this.readInt();
+			else
+				this.skipValue();
+		} while(this.separator('}'));
+	}
+
+	/**
+	 * Parse the array of vertices
+	 */
+	private void readNodes() throws IOException {
+		this.expect('[');
+		if(this.peek()==']') {
+			this.next();
+			return;
+		}
+		do {
+			if(this.n==this.x.length) {
+				this.ids=Arrays.copyOf(this.ids, 2*this.n);
+				this.x=Arrays.copyOf(this.x, 2*this.n);
+				this.y=Arrays.copyOf(this.y, 2*this.n);
+			}
+			this.expect('{');
+			do {
+				this.readString();
+				this.expect(':');
+				if(this.matchKey(ID))
+					this.ids[this.n]=this.readInt();
+				else if(this.matchKey(X))
+					this.x[this.n]=this.readInt();
+				else if(this.matchKey(Y))
+					this.y[this.n]=this.readInt();
+				else
+					this.skipValue();
+			} while(this.separator('}'));
+			this.n++;
+		} while(this.separator(']'));
+	}
+
+	/**
+	 * Parse the array of edges
+	 */
+	private void readEdges() throws IOException {
+		this.expect('[');
+		if(this.peek()==']') {
+			this.next();
+			return;
+		}
+		do {
+			if(this.e==this.source.length) {
+				this.source=Arrays.copyOf(this.source, 2*this.e);
+				this.target=Arrays.copyOf(this.target, 2*this.e);
+				this.hasBends=Arrays.copyOf(this.hasBends, 2*this.e);
+				this.bendOffsets=Arrays.copyOf(this.bendOffsets, 2*this.e+1);
+			}
+			this.expect('{');
+			do {
+				this.readString();
+				this.expect(':');
+				if(this.matchKey(SOURCE))
+					this.source[this.e]=this.readInt();
+				else if(this.matchKey(TARGET))
+					this.target[this.e]=this.readInt();
+				else if(this.matchKey(BENDS) && this.peek()=='[') {
+					this.hasBends[this.e]=true;
+					this.readBends();
+				}
+				else
+					this.skipValue();
+			} while(this.separator('}'));
+			this.e++;
+			this.bendOffsets[this.e]=this.nBends;
+		} while(this.separator(']'));
+	}
+
+	/**
+	 * Parse the array of bend points of the current edge
+	 */
+	private void readBends() throws IOException {
+		this.expect('[');
+		if(this.peek()==']') {
+			this.next();
+			return;
+		}
+		do {
+			if(this.nBends==this.bendX.length) {
+				this.bendX=Arrays.copyOf(this.bendX, 2*this.nBends);
+				this.bendY=Arrays.copyOf(this.bendY, 2*this.nBends);
+			}
+			this.expect('{');
+			do {
+				this.readString();
+				this.expect(':');
+				if(this.matchKey(X))
+					this.bendX[this.nBends]=this.readInt();
+				else if(this.matchKey(Y))
+					this.bendY[this.nBends]=this.readInt();
+				else
+					this.skipValue();
+			} while(this.separator('}'));
+			this.nBends++;
+		} while(this.separator(']'));
+	}
+
+	/**
+	 * Skip a value of any type (objects and arrays are skipped with a counter: no recursion)
+	 */
+	private void skipValue() throws IOException {
+		int depth=0;
+		do {
+			char c=this.peek();
+			if(c=='"')
+				this.readString();
+			else if(c=='{' || c=='[') {
+				this.next();
+				depth++;
+			}
+			else if(c=='}' || c==']') {
+				this.next();
+				depth--;
+			}
+			else if(c==',' || c==':')
+				this.next();
+			else { // number or literal (true, false, null)
+				while(this.position<this.limit || this.fill()) {
+					c=this.buffer[this.position];
+					if(c==',' || c=='}' || c==']' || Character.isWhitespace(c))
+						break;
+					this.position++;
+				}
+			}
+		} while(depth>0);
+	}
+
+	/** bound on the scale of the fractional part (only its first digits are kept, see <tt>readInt()</tt>) */
+	private static final long MAX_SCALE=1000000000000000000L;
+
+	/**
+	 * Read an integer value: decimal values are truncated, after applying the exponent (if any): 1e5 is read as 100000, 2.5e3 as 2500
+	 */
+	private int readInt() throws IOException {
+		char c=this.peek();
+		boolean negative=false;
+		if(c=='-') {
+			negative=true;
+			this.next();
+		}
+		long value=0;
+		int digits=0;
+		while(this.position<this.limit || this.fill()) {
+			c=this.buffer[this.position];
+			if(c<'0' || c>'9')
+				break;
+			value=10*value+(c-'0');
+			if(value>Integer.MAX_VALUE+1L)
+				throw this.error("integer value out of range");
+			digits++;
+			this.position++;
+		}
+		if(digits==0)
+			throw this.error("integer value expected");
+
+		long fraction=0, scale=1; // digits of the fractional part, after its leading zeros (fraction<scale, a power of 10)
+		int zeros=0; // leading zeros of the fractional part
+		if(c=='.') {
+			this.position++;
+			int fractionDigits=0;
+			while(this.position<this.limit || this.fill()) {
+				c=this.buffer[this.position];
+				if(c<'0' || c>'9')
+					break;
+				if(fraction==0 && c=='0')
+					zeros++;
+				else if(scale<MAX_SCALE) { // further digits cannot be shifted into the integer part without overflow
+					fraction=10*fraction+(c-'0');
+					scale=10*scale;
+				}
+				fractionDigits++;
+				this.position++;
+			}
+			if(fractionDigits==0)
+				throw this.error("digits expected after the decimal point");
+		}
+		int exponent=0;
+		if(c=='e' || c=='E') {
+			this.position++;
+			boolean negativeExponent=false;
+			if((this.position<this.limit || this.fill()) && (this.buffer[this.position]=='+' || this.buffer[this.position]=='-')) {
+				negativeExponent=(this.buffer[this.position]=='-');
+				this.position++;
+			}
+			int expDigits=0;
+			while(this.position<this.limit || this.fill()) {
+				c=this.buffer[this.position];
+				if(c<'0' || c>'9')
+					break;
+				exponent=Math.min(10*exponent+(c-'0'), 1000); // larger exponents are out of range anyway
+				expDigits++;
+				this.position++;
+			}
+			if(expDigits==0)
+				throw this.error("digits expected in the exponent");
+			exponent=negativeExponent ? -exponent : exponent;
+		}
+
+		// apply the exponent: the digits of the fractional part are shifted into the integer part (or integer digits are dropped)
+		for(int i=0;i<exponent;i++) {
+			long digit=0; // the next digit of the fractional part (0 when all its digits are shifted)
+			if(zeros>0)
+				zeros--;
+			else if(scale>1) {
+				scale=scale/10;
+				digit=fraction/scale;
+				fraction=fraction%scale;
+			}
+			value=10*value+digit;
+			if(value>Integer.MAX_VALUE+1L)
+				throw this.error("integer value out of range");
+		}
+		for(int i=0;i>exponent && value>0;i--)
+			value=value/10;
+
+		value=negative ? -value : value;
+		if(value>Integer.MAX_VALUE)
+			throw this.error("integer value out of range");
+		return (int)value;
+	}
+
+	/**
+	 * Read a string, and store its characters in the array <tt>string</tt> (escape sequences are decoded)
+	 */
+	private void readString() throws IOException {
+		this.expect('"');
+		this.stringLength=0;
+		while(true) {
+			char c=this.read();
+			if(c=='"')
+				return;
+			if(c=='\\') {
+				c=this.read();
+				switch(c) {
+				case 'n': c='\n'; break;
+				case 't': c='\t'; break;
+				case 'r': c='\r'; break;
+				case 'b': c='\b'; break;
+				case 'f': c='\f'; break;
+				case 'u':
+					int code=0;
+					for(int i=0;i<4;i++) {
+						int digit=Character.digit(this.read(), 16);
+						if(digit<0)
+							throw this.error("wrong unicode escape sequence");
+						code=16*code+digit;
+					}
+					c=(char)code;
+					break;
+				default: // quote, backslash and slash
+				}
+			}
+			if(this.stringLength==this.string.length)
+				this.string=Arrays.copyOf(this.string, 2*this.stringLength);
+			this.string[this.stringLength++]=c;
+		}
+	}
+
+	/**
+	 * Says whether the last string read is equal to a given key (it is compared in place, without creating a String)
+	 */
+	private boolean matchKey(char[] key) {
+		if(this.stringLength!=key.length)
+			return false;
+		for(int i=0;i<key.length;i++) {
+			if(this.string[i]!=key[i])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Read the separator following a value: return true if it is a comma, false if it is the closing character
+	 */
+	private boolean separator(char closing) throws IOException {
+		char c=this.next();
+		if(c==',')
+			return true;
+		if(c!=closing)
+			throw this.error("expected ',' or '"+closing+"'");
+		return false;
+	}
+
+	/** read the next non blank character, and check that it is the expected one */
+	private void expect(char expected) throws IOException {
+		if(this.next()!=expected)
+			throw this.error("expected '"+expected+"'");
+	}
+
+	/** return the next non blank character (without consuming it) */
+	private char peek() throws IOException {
+		while(this.position<this.limit || this.fill()) {
+			char c=this.buffer[this.position];
+			if(Character.isWhitespace(c)==false)
+				return c;
+			if(c=='\n')
+				this.line++;
+			this.position++;
+		}
+		throw this.error("unexpected end of file");
+	}
+
+	/** return (and consume) the next non blank character */
+	private char next() throws IOException {
+		char c=this.peek();
+		this.position++;
+		return c;
+	}
+
+	/** return (and consume) the next character, blank or not (inside strings) */
+	private char read() throws IOException {
+		if(this.position==this.limit && this.fill()==false)
+			throw this.error("unexpected end of file");
+		return this.buffer[this.position++];
+	}
+
+	/** refill the buffer: return false at the end of the input */
+	private boolean fill() throws IOException {
+		this.limit=this.reader.read(this.buffer, 0, this.buffer.length);
+		this.position=0;
+		if(this.limit<=0) {
+			this.limit=0;
+			return false;
+		}
+		return true;
+	}
+
+	private Error error(String message) {
+		return new Error("Error: wrong JSON format (line "+this.line+"): "+message);
+	}
+
+}
@@ -0,0 +1,103 @@
+package sw;
+
+import Jcg.geometry.Point_;
+import Jcg.polyhedron.Halfedge;
+import Jcg.polyhedron.Polyhedron_3;
+
+/**
+ * A compact (array based) representation of the half-edges of a mesh, where half-edges are integers 0..(2e-1). <br>
+ * <br>
+ * The two half-edges of an edge are stored consecutively: the opposite of half-edge 'h' is 'h^1'
+ * (half-edges 2k and 2k+1 are opposite). The incidence relations are stored in primitive arrays: <br>
+ * -) next[h] and prev[h]: the next and previous half-edges in the face incident to 'h' <br>
+ * -) vertex[h]: the index of the target vertex of 'h' <br>
+ * <br>
+ * Navigating the mesh (turning around faces and vertices) only requires array lookups, instead of following
+ * references between half-edge objects scattered in the heap. <br>
+ * <br>
+ * Remark: the indices of the half-edges of the polyhedron are updated (<tt>h.index</tt>) in order to coincide with their
+ * indices in the arrays, so that data indexed by half-edges (colors, orientations) can be accessed in both representations.
+ */
+public class ArrayBasedHalfedges {
+	/** number of half-edges */
+	public int size;
+
+	/** next and previous half-edges (in the same face) */
+	public int[] next, prev;
+	/** target vertex of each half-edge */
+	public int[] vertex;
+	/** the half-edges of the polyhedron (the half-edge having index 'h') */
+	public Halfedge<Point_>[] halfedges;
+
+	/**
+	 * Build the array based representation of a polyhedron (without boundaries) <br>
+	 * <br>
+	 * Warning: the vertices are assumed to be already indexed (from 0 to n-1)
+	 */
+	public ArrayBasedHalfedges(Polyhedron_3<Point_> polyhedron) {
+		this.reset(polyhedron);
+	}
+
+	/**
+	 * Build the array based representation of another polyhedron (without boundaries), reusing the arrays: they are only reallocated
+	 * when they are too small (the arrays can be larger than the number of half-edges, given by 'size') <br>
+	 * <br>
+	 * Warning: the vertices are assumed to be already indexed (from 0 to n-1)
+	 */
+	public void reset(Polyhedron_3<Point_> polyhedron) {
+		int previousSize=this.size;
+		this.size=polyhedron.sizeOfHalfedges();
+		if(this.size%2!=0)
+			throw new Error("Error: odd number of half-edges ("+this.size+")");
+		if(this.next==null || this.next.length<this.size) {
+			this.next=new int[this.size];
+			this.prev=new int[this.size];
+			this.vertex=new int[this.size];
+			@SuppressWarnings("unchecked") // generic arrays cannot be created
+			Halfedge<Point_>[] halfedges=(Halfedge<Point_>[])new Halfedge<?>[this.size];
+			this.halfedges=halfedges;
+		}
+		else {
+			for(int h=this.size;h<previousSize;h++) // do not keep references to the half-edges of the previous polyhedron
+				this.halfedges[h]=null;
+		}
+
+		// number the half-edges: opposite half-edges receive consecutive indices 2k and 2k+1
+		for(Halfedge<Point_> e: polyhedron.halfedges)
+			e.index=-1;
+		int count=0;
+		for(Halfedge<Point_> e: polyhedron.halfedges) {
+			if(e.index>=0)
+				continue;
+			if(e.getOpposite()==null)
+				throw new Error("Error: half-edge without opposite (the mesh has boundaries)");
+			e.index=count;
+			e.getOpposite().index=count+1;
+			this.halfedges[count]=e;
+			this.halfedges[count+1]=e.getOpposite();
+			count+=2;
+		}
+
+		for(int h=0;h<this.size;h++) {
+			Halfedge<Point_> e=this.halfedges[h];
+			this.next[h]=e.getNext().index;
+			this.prev[h]=e.getPrev().index;
+			this.vertex[h]=e.getVertex().index;
+		}
+	}
+
+	/**
+	 * Return the opposite half-edge of 'h'
+	 */
+	public static int opposite(int h) {
+		return h^1;
+	}
+
+	/**
+	 * Return the index of the source vertex of half-edge 'h'
+	 */
+	public int source(int h) {
+		return this.vertex[h^1];
+	}
+
+}
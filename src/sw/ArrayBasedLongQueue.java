@@ -0,0 +1,105 @@
+package sw;
+
+/**
+ * An array-based implementation of a queue of long integers (ring buffer, without boxing). <br>
+ * <br>
+ * The capacity is a power of two, and positions are computed with a bit mask (<tt>i&amp;(capacity-1)</tt>):
+ * when the queue is full its capacity is doubled, so that insertions never fail. <br>
+ * <br>
+ * Remark: resetting the queue takes O(1) time (the stored values are not cleared)
+ */
+public class ArrayBasedLongQueue {
+	/** stored values */
+	private long[] A;
+	/** capacity-1 (the capacity is a power of two) */
+	private int mask;
+	/** position of the first element, and number of elements */
+	private int front, size;
+
+	/**
+	 * Initialize an empty queue (with a given initial capacity)
+	 */
+	public ArrayBasedLongQueue(int capacity) {
+		int c=Integer.highestOneBit(Math.max(capacity, 2)-1)<<1; // smallest power of two >= capacity
+		if(c<=0)
+			throw new Error("Error: queue capacity too large ("+capacity+")");
+		this.A=new long[c];
+		this.mask=c-1;
+		this.front=0;
+		this.size=0;
+	}
+
+	/**
+	 * Add a value at the end of the queue (the capacity is doubled if the queue is full)
+	 */
+	public void add(long value) {
+		if(this.size==this.A.length)
+			this.grow();
+		this.A[(this.front+this.size)&this.mask]=value;
+		this.size++;
+	}
+
+	/**
+	 * Remove the value at the front of the queue, and return it
+	 */
+	public long poll() {
+		if(this.size==0)
+			throw new Error("Error: queue is empty, cannot dequeue");
+		long value=this.A[this.front];
+		this.front=(this.front+1)&this.mask;
+		this.size--;
+		return value;
+	}
+
+	/**
+	 * Return the value at the front of the queue (without removing it)
+	 */
+	public long peek() {
+		if(this.size==0)
+			throw new Error("Error: queue is empty");
+		return this.A[this.front];
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size==0;
+	}
+
+	/**
+	 * Remove all elements
+	 */
+	public void reset() {
+		this.front=0;
+		this.size=0;
+	}
+
+	/**
+	 * Double the capacity of the queue (the elements are moved to the beginning of the new array)
+	 */
+	private void grow() {
+		int capacity=this.A.length;
+		if(capacity<<1<=0)
+			throw new Error("Error: queue is full ("+capacity+" elements)");
+		long[] B=new long[capacity<<1];
+		int first=capacity-this.front; // number of elements stored between 'front' and the end of the array
+		System.arraycopy(this.A, this.front, B, 0, first);
+		System.arraycopy(this.A, 0, B, first, this.front);
+		this.A=B;
+		this.mask=B.length-1;
+		this.front=0;
+	}
+
+	/**
+	 * Returns a string representing the elements stored in the queue
+	 */
+	public String toString() {
+		String result="Queue [size="+this.size+", capacity="+this.A.length+", queue=";
+		for(int i=0;i<this.size;i++)
+			result=result+" "+this.A[(this.front+i)&this.mask];
+		return result+"]";
+	}
+
+}
@@ -1,91 +1,112 @@
 package sw;
+
 import java.util.Arrays;
 
 /**
+ * An array-based implementation of a queue (ring buffer). <br>
+ * <br>
+ * The capacity is a power of two, and positions are computed with a bit mask (<tt>i&amp;(capacity-1)</tt>):
+ * when the queue is full its capacity is doubled, so that insertions never fail. <br>
+ * <br>
+ * Remark: resetting the queue takes O(size) time (only the stored references are cleared)
+ *
+ * @see ArrayBasedIntQueue
+ * @see ArrayBasedLongQueue
  * @author Luca Castelli Aleardi (Ecole Polytechnique, 2019)
- * 
- * An array-based implementation of a queue
  */
 public class ArrayBasedQueue<X> {
-    private int front;
-    private int rear;
-    private final int maxSize;
-    X[] A;
+	/** stored values */
+	private X[] A;
+	/** capacity-1 (the capacity is a power of two) */
+	private int mask;
+	/** position of the first element, and number of elements */
+	private int front, size;
 
 	/**
-	 * Initialize a queue (with a given size)
+	 * Initialize an empty queue (with a given initial capacity)
 	 */
-    public ArrayBasedQueue(int size) {
-        maxSize=size;
-        A = (X[]) new Object[size];
-        front = -1;
-        rear = -1;
-    }
-    
+	public ArrayBasedQueue(int capacity) {
+		int c=Integer.highestOneBit(Math.max(capacity, 2)-1)<<1; // smallest power of two >= capacity
+		if(c<=0)
+			throw new Error("Error: queue capacity too large ("+capacity+")");
+		this.A=(X[])new Object[c];
+		this.mask=c-1;
+		this.front=0;
+		this.size=0;
+	}
+
 	/**
-	 * Add a value at the end of the queue.
+	 * Add a value at the end of the queue (the capacity is doubled if the queue is full)
 	 */
-    public void add(X value) {
-        if ((rear+1)%maxSize==front) {
-            throw new Error("Queue is full");
-
-        } else if (isEmpty()) {
-            front++;
-            rear++;
-            A[rear] = value;
-
-        } else {
-            rear=(rear+1)%maxSize;
-            A[rear] = value;
+	public void add(X value) {
+		if(this.size==this.A.length)
+			this.grow();
+		this.A[(this.front+this.size)&this.mask]=value;
+		this.size++;
+	}
 
-        }
-    }
+	/**
+	 * Remove the value at the front of the queue, and return it
+	 */
+	public X poll() {
+		if(this.size==0)
+			throw new Error("Error: queue is empty, cannot dequeue");
+		X value=this.A[this.front];
+		this.A[this.front]=null;
+		this.front=(this.front+1)&this.mask;
+		this.size--;
+		return value;
+	}
 
 	/**
-	 * Removes the value at the top of this queue and returns that value as the value of this function.
+	 * Return the value at the front of the queue (without removing it)
 	 */
-    public X poll() {
-        X value = null;
-        if (isEmpty()) {
-            throw new Error("Queue is empty, cant dequeue");
-        } else if (front == rear) {
-            value = A[front];
-            front = -1;
-            rear = -1;
+	public X peek() {
+		if(this.size==0)
+			throw new Error("Error: queue is empty");
+		return this.A[this.front];
+	}
 
-        } else {
-            value = A[front];
-            front=(front+1)%maxSize;
+	public int size() {
+		return this.size;
+	}
 
-        }
-        return value;
-    }
+	public boolean isEmpty() {
+		return this.size==0;
+	}
 
 	/**
-	 * Check whether the stack is empty
+	 * Remove all elements
 	 */
-    public boolean isEmpty() {
-    	return (front == -1 && rear == -1);
-    }
+	public void reset() {
+		for(int i=0;i<this.size;i++)
+			this.A[(this.front+i)&this.mask]=null;
+		this.front=0;
+		this.size=0;
+	}
 
 	/**
-	 * Reset the array: all elements are removed (set to 0)
+	 * Double the capacity of the queue (the elements stored before 'front' are moved after the end of the old array)
 	 */
-    public void reset() {
-    	for(int i=0;i<this.maxSize;i++) {
-    		this.A[i]=null;
-    	}
-        front = -1;
-        rear = -1;
-    }
+	private void grow() {
+		int capacity=this.A.length;
+		if(capacity<<1<=0)
+			throw new Error("Error: queue is full ("+capacity+" elements)");
+		X[] B=Arrays.copyOf(this.A, capacity<<1); // the elements between 'front' and the end of the array keep their positions
+		System.arraycopy(this.A, 0, B, capacity, this.front);
+		Arrays.fill(B, 0, this.front, null); // do not keep references to the moved elements
+		this.A=B;
+		this.mask=B.length-1;
+	}
 
 	/**
 	 * Returns a string representing the elements stored in the queue
 	 */
-    public String toString() {
-        return "Queue [front=" + front + ", rear=" + rear + ", size=" + maxSize
-                + ", queue=" + Arrays.toString(A) + "]";
-
-    }
+	public String toString() {
+		String result="Queue [size="+this.size+", capacity="+this.A.length+", queue=";
+		for(int i=0;i<this.size;i++)
+			result=result+" "+this.A[(this.front+i)&this.mask];
+		return result+"]";
+	}
 
 }
@@ -7,8 +7,6 @@ import Jcg.geometry.Point_;
 import Jcg.polyhedron.Halfedge;
 import Jcg.polyhedron.Polyhedron_3;
 import Jcg.polyhedron.Vertex;
-import Jcg.util.DLinkedList;
-import Jcg.util.DListNode;
 
 /**
  * @author Luca Castelli Aleardi (2019, Ecole Polytechnique)
@@ -26,13 +24,11 @@ public class BalancedSchnyderWood extends PlanarTriSchnyderWood {
     protected LinkedList<DListNode<Halfedge<Point_>>> nodes2; // nodes with 2 ingoing red/blue edges
     protected LinkedList<DListNode<Halfedge<Point_>>> nodes3; // nodes with 3 ingoing red/blue edges
     protected LinkedList<DListNode<Halfedge<Point_>>> nodes4; // nodes with >3 ingoing red/blue edges*/
-    protected ArrayBasedQueue<DListNode<Halfedge<Point_>>> nodes0; // nodes with 0 ingoing red/blue edges 
-    protected ArrayBasedQueue<DListNode<Halfedge<Point_>>> nodes1; // nodes with 1 ingoing red/blue edges 
-    protected ArrayBasedQueue<DListNode<Halfedge<Point_>>> nodes2; // nodes with 2 ingoing red/blue edges
-    protected ArrayBasedQueue<DListNode<Halfedge<Point_>>> nodes3; // nodes with 3 ingoing red/blue edges
-    protected ArrayBasedQueue<DListNode<Halfedge<Point_>>> nodes4; // nodes with >3 ingoing red/blue edges
-    protected ArrayBasedQueue<DListNode<Halfedge<Point_>>> nodes5; // nodes with >3 ingoing red/blue edges
-    protected ArrayBasedQueue<DListNode<Halfedge<Point_>>> nodes6; // nodes with >3 ingoing red/blue edges
+    // vertices on the cut-border, sorted according to their number of ingoing red/blue edges (vertices with more
+    // than MAX_PRIORITY ingoing edges share the same bucket)
+    public static final int MAX_PRIORITY=4;
+    public BucketQueue queue;
+    protected int[] nodeOf; // for vertices in the queue, the node of the cut-border storing their incoming boundary edge
     protected int[] ingoing;
 
     /**
@@ -49,17 +45,29 @@ public class BalancedSchnyderWood extends PlanarTriSchnyderWood {
     	this.nodes2=new LinkedList<DListNode<Halfedge<Point_>>>();
     	this.nodes3=new LinkedList<DListNode<Halfedge<Point_>>>();
     	this.nodes4=new LinkedList<DListNode<Halfedge<Point_>>>();*/
-    	this.nodes0=new ArrayBasedQueue<DListNode<Halfedge<Point_>>>(n);
-    	this.nodes1=new ArrayBasedQueue<DListNode<Halfedge<Point_>>>(n);
-    	this.nodes2=new ArrayBasedQueue<DListNode<Halfedge<Point_>>>(n);
-    	this.nodes3=new ArrayBasedQueue<DListNode<Halfedge<Point_>>>(n);
-    	this.nodes4=new ArrayBasedQueue<DListNode<Halfedge<Point_>>>(n);
-    	this.nodes5=new ArrayBasedQueue<DListNode<Halfedge<Point_>>>(n/2);
-    	this.nodes6=new ArrayBasedQueue<DListNode<Halfedge<Point_>>>(n/2);
+    	this.queue=new BucketQueue(n, MAX_PRIORITY, BucketQueue.FIFO);
+    	this.nodeOf=new int[n];
     	this.ingoing=new int[this.polyhedron.sizeOfVertices()];
     	for(int i=0;i<this.ingoing.length;i++) 
     		this.ingoing[i]=-1;
    }
+
+    /**
+     * Prepare the computation of a balanced Schnyder wood of another planar triangulation, reusing the arrays and the queue
+     * (they are only reallocated when they are too small)
+     */
+    public void reset(Polyhedron_3<Point_> polyhedron, Halfedge<Point_> rootEdge) {
+    	super.reset(polyhedron, rootEdge);
+    	
+    	int n=this.polyhedron.sizeOfVertices();
+    	this.queue.reset(n);
+    	if(this.nodeOf.length<n) {
+    		this.nodeOf=new int[n];
+    		this.ingoing=new int[n];
+    	}
+    	for(int i=0;i<n;i++) 
+    		this.ingoing[i]=-1;
+    }
    
     /**
      * It removes a vertex from the cut-border (vertex conquest)
@@ -68,21 +76,22 @@ public class BalancedSchnyderWood extends PlanarTriSchnyderWood {
      * @param node The node in the list storing the given half-edge (whose vertex will be removed)
      * @return result return the list node containing the preceding halfedge (on the boundary cycle)
      */
-    public DListNode<Halfedge<Point_>> vertexRemoval(DListNode<Halfedge<Point_>> node) {
-    	if(node==null || this.outerCycle.isEmpty()) {
+    public int vertexRemoval(int node) {
+    	if(node==CutBorder.NONE || this.outerCycle.isEmpty()) {
     		System.out.println("no more vertex to remove ");
-    		return null;
+    		return CutBorder.NONE;
     	}
     	
-    	Halfedge<Point_> rightEdge=node.getElement(); // the vertex v of rightEdge will be removed
-    	if(rightEdge==null) {
+    	int right=this.outerCycle.getElement(node); // the vertex v of rightEdge will be removed
+    	if(right==CutBorder.NONE) {
     		throw new Error("null reference: rightEdge");
     	}
-    	if(rightEdge.getVertex()==this.v0) // vertex v0 cannot be removed
-    		return node.getNext();
+    	int[] next=this.map.next, prev=this.map.prev, vertex=this.map.vertex;
+    	if(vertex[right]==this.v0.index) // vertex v0 cannot be removed
+    		return this.outerCycle.getNext(node);
     	
-    	Halfedge<Point_> leftEdge=node.getPrev().getElement();
-    	if(leftEdge==null) {
+    	int left=this.outerCycle.getElement(this.outerCycle.getPrev(node));
+    	if(left==CutBorder.NONE) {
     		throw new Error("null reference: leftEdge");
     	}
     	
@@ -100,39 +109,43 @@ public class BalancedSchnyderWood extends PlanarTriSchnyderWood {
     	/*if(this.hasIncidentChords[rightEdge.getVertex().index]>0)
     		return i+1; */
     	if(this.hasIncidentChords(node)==true)
-    		return node.getNext();
+    		return this.outerCycle.getNext(node);
     	
     	// general case: the vertex is incident to more than one triangle
     	
     	// process left and right edges incident to v on the cut-border
-    	this.setOutgoingEdge1(rightEdge);
-    	this.setOutgoingEdge0(leftEdge);
+    	this.setOutgoingEdge1(right);
+    	this.setOutgoingEdge0(left);
     	
     	// v is not anymore on the cut-border
-    	this.isOnCutBorder[rightEdge.getVertex().index]=false;
+    	this.isOnCutBorder[vertex[right]]=false;
+    	this.queue.remove(vertex[right]);
     	
     	// add new edges to the cut-border
     	//this.addToCutBorder(rightEdge.getPrev().getOpposite(), i-1);
-    	this.setToCutBorder(rightEdge.getPrev().getOpposite());
-    	node.setElement(rightEdge.getPrev().getOpposite());
+    	int e=prev[right]^1;
+    	this.setToCutBorder(e);
+    	this.outerCycle.setElement(node, e);
     	this.addToQueue(node); // add to the queue the (new) rightmost vertex on the path, from v_l to v_r
     	
-    	DListNode<Halfedge<Point_>> previousNode=node.getPrev(); // the boundary edge preceding
-    	DListNode<Halfedge<Point_>> nextNode=node.getNext(); // the boundary edge following
+    	int previousNode=this.outerCycle.getPrev(node); // the boundary edge preceding
+    	int nextNode=this.outerCycle.getNext(node); // the boundary edge following
     	
     	this.addToQueue(nextNode); // for balanced Schnyder woods: incoming blue edge (right)
    	
-    	Halfedge<Point_> pEdge=rightEdge.getNext().getOpposite();
-    	while(pEdge!=leftEdge.getOpposite()) {
-    		this.setToCutBorder(pEdge.getPrev().getOpposite());
-    		this.outerCycle.insertAfter(previousNode, pEdge.getPrev().getOpposite());
+    	int pEdge=next[right]^1;
+    	while(pEdge!=(left^1)) {
+    		this.addChords(pEdge);
+    		e=prev[pEdge]^1;
+    		this.setToCutBorder(e);
+    		this.outerCycle.insertAfter(previousNode, e);
     		this.setIngoingEdge2(pEdge);
     		
-        	this.addToQueue(previousNode.getNext()); // for balanced Schnyder woods
+        	this.addToQueue(this.outerCycle.getNext(previousNode)); // for balanced Schnyder woods
 
-    		pEdge=pEdge.getNext().getOpposite();
+    		pEdge=next[pEdge]^1;
     	}
-    	DListNode<Halfedge<Point_>> result=previousNode.getNext();
+    	int result=this.outerCycle.getNext(previousNode);
     	this.outerCycle.delete(previousNode);
     	
     	return result;
@@ -141,31 +154,35 @@ public class BalancedSchnyderWood extends PlanarTriSchnyderWood {
     /**
      * Add each vertex to a queue, depending on its ingoing degree
      */
-    protected void addToQueue(DListNode<Halfedge<Point_>> node) {
-    	if(node==null || node.getElement()==null)
+    protected void addToQueue(int node) {
+    	if(node==CutBorder.NONE || this.outerCycle.getElement(node)==CutBorder.NONE)
     		return;
-    	if(node.getElement().getVertex()==this.v0 || node.getElement().getVertex()==this.v1) // LCA: this is instruction is redundant (just for debugging)
+    	int vertex=this.map.vertex[this.outerCycle.getElement(node)];
+    	if(vertex==this.v0.index || vertex==this.v1.index) // LCA: this is instruction is redundant (just for debugging)
     		return;
     	
-    	Halfedge e=node.getElement();
-    	int vertex=e.getVertex().index;
     	this.ingoing[vertex]++;
-    	    	
-    	if(this.ingoing[vertex]==0) {
-    		this.nodes0.add(node);
-    	}
-    	else if(this.ingoing[vertex]==1) {
-    		this.nodes1.add(node);
-    	}
-    	else if(this.ingoing[vertex]==2) {
-    		this.nodes2.add(node);
-    	}
-    	else if(this.ingoing[vertex]==3) {
-    		this.nodes3.add(node);
-    	}
-    	else
-    		this.nodes4.add(node);
+    	this.nodeOf[vertex]=node;
+    	this.queue.add(vertex, this.ingoing[vertex]); // the priority is updated if the vertex is already in the queue
+    }
 
+    /**
+     * Process the vertices of the queue, by decreasing number of ingoing edges: each polled vertex is removed
+     * from the cut-border (if it has no incident chords)
+     * 
+     * @return the number of removed vertices
+     */
+    protected int processQueue() {
+    	int countRemoved=0;
+    	while(this.queue.isEmpty()==false) {
+    		int vertex=this.queue.pollMax();
+    		int node=this.nodeOf[vertex];
+    		if(this.isOnCutBorder[vertex]==true && this.map.vertex[this.outerCycle.getElement(node)]==vertex) {
+    			this.vertexRemoval(node);
+    			countRemoved++;
+    		}
+    	}
+    	return countRemoved;
     }
     
     /**
@@ -180,22 +197,22 @@ public class BalancedSchnyderWood extends PlanarTriSchnyderWood {
     	if(this.verbosity>0)
     		System.out.println("First phase");
     	
-    	DListNode<Halfedge<Point_>> node=this.outerCycle.getFirst().getNext();
-    	if(node==null) {
+    	int node=this.outerCycle.getNext(this.outerCycle.getFirst());
+    	if(node==CutBorder.NONE) {
     		throw new Error("error null reference: first boundary node not defined");
     	}
     	int count=0;
     	while(this.outerCycle.size()>1 && count<1) {
     		//System.out.println("\nCut border: \n"+this.toString());
-    		//System.out.println("Processing vertex "+node.getElement().getVertex().index);
+    		//System.out.println("Processing vertex "+this.map.halfedges[this.outerCycle.getElement(node)].getVertex().index);
     		node=this.vertexRemoval(node);
     		count++;
     	}
 
 /*    	System.out.println("Intermediate phase");
-    	LinkedList<DListNode> pass=this.getCutBorder();
-    	node=this.outerCycle.getFirst().getNext();
-    	if(node==null) {
+    	LinkedList<Integer> pass=this.getCutBorder();
+    	node=this.outerCycle.getNext(this.outerCycle.getFirst());
+    	if(node==CutBorder.NONE) {
     		throw new Error("error null reference: first boundary node not defined");
     	}
     	count=0;
@@ -204,8 +221,8 @@ public class BalancedSchnyderWood extends PlanarTriSchnyderWood {
     		//this.printCutBorderInfo();
     			node=pass.poll();
     		
-    		if(node!=null && node.getElement()!=null) {
-    			if(this.isOnCutBorder[node.getElement().getVertex().index]==true) {
+    		if(node!=CutBorder.NONE && this.outerCycle.getElement(node)!=CutBorder.NONE) {
+    			if(this.isOnCutBorder[this.map.vertex[this.outerCycle.getElement(node)]]==true) {
     				this.vertexRemoval(node);
     				countRemoved++;
     			}
@@ -219,37 +236,11 @@ public class BalancedSchnyderWood extends PlanarTriSchnyderWood {
     	if(this.verbosity>0)
     		System.out.println("Intermediate phase");
     	
-    	node=this.outerCycle.getFirst().getNext();
-    	if(node==null) {
+    	node=this.outerCycle.getNext(this.outerCycle.getFirst());
+    	if(node==CutBorder.NONE) {
     		throw new Error("error null reference: first boundary node not defined");
     	}
-    	count=0;
-    	int countRemoved=0;
-    	while((this.nodes6.isEmpty()==false || this.nodes5.isEmpty()==false || this.nodes4.isEmpty()==false || this.nodes3.isEmpty()==false || this.nodes2.isEmpty()==false || this.nodes1.isEmpty()==false || this.nodes0.isEmpty()==false)) {
-    		//this.printCutBorderInfo();
-    		
-    		if(this.nodes6.isEmpty()==false)
-    			node=this.nodes6.poll();
-    		if(this.nodes5.isEmpty()==false)
-    			node=this.nodes5.poll();
-    		else if(this.nodes4.isEmpty()==false)
-    			node=this.nodes4.poll();
-    		else if(this.nodes3.isEmpty()==false)
-    			node=this.nodes3.poll();
-    		else if(this.nodes2.isEmpty()==false)
-    			node=this.nodes2.poll();
-    		else if(this.nodes1.isEmpty()==false)
-    			node=this.nodes1.poll();
-    		else
-    			node=this.nodes0.poll();
-    		
-    		if(node!=null && node.getElement()!=null) {
-    			if(this.isOnCutBorder[node.getElement().getVertex().index]==true) {
-    				this.vertexRemoval(node);
-    				countRemoved++;
-    			}
-    		}
-    	}
+    	int countRemoved=this.processQueue();
     	if(this.verbosity>0) {
     		System.out.println("Removed: "+countRemoved);
     		this.printCutBorderInfo();
@@ -260,14 +251,14 @@ public class BalancedSchnyderWood extends PlanarTriSchnyderWood {
     	
     	
     	
-    	node=this.outerCycle.getFirst().getNext();
-    	if(node==null) {
+    	node=this.outerCycle.getNext(this.outerCycle.getFirst());
+    	if(node==CutBorder.NONE) {
     		throw new Error("error null reference: first boundary node not defined");
     	}
     	countRemoved=0;
     	while(this.outerCycle.size()>1) {
     		//System.out.println("\nCut border: \n"+this.toString());
-    		//System.out.println("Processing vertex "+node.getElement().getVertex().index);
+    		//System.out.println("Processing vertex "+this.map.halfedges[this.outerCycle.getElement(node)].getVertex().index);
     		node=this.vertexRemoval(node);
     		countRemoved++;
     	}
@@ -298,8 +289,8 @@ public class BalancedSchnyderWood extends PlanarTriSchnyderWood {
     	if(this.verbosity>0)
     		System.out.println("First phase");
     	
-    	DListNode<Halfedge<Point_>> node=this.outerCycle.getFirst().getNext();
-    	if(node==null) {
+    	int node=this.outerCycle.getNext(this.outerCycle.getFirst());
+    	if(node==CutBorder.NONE) {
     		throw new Error("error null reference: first boundary node not defined");
     	}
     	
@@ -313,33 +304,11 @@ public class BalancedSchnyderWood extends PlanarTriSchnyderWood {
     	if(this.verbosity>0)
     		System.out.println("Intermediate phase");
     	
-    	node=this.outerCycle.getFirst().getNext();
-    	if(node==null) {
+    	node=this.outerCycle.getNext(this.outerCycle.getFirst());
+    	if(node==CutBorder.NONE) {
     		throw new Error("error null reference: first boundary node not defined");
     	}
-    	count=0;
-    	int countRemoved=0;
-    	while((this.nodes4.isEmpty()==false || this.nodes3.isEmpty()==false || this.nodes2.isEmpty()==false || this.nodes1.isEmpty()==false || this.nodes0.isEmpty()==false)) {
-    		//this.printCutBorderInfo();
-    		
-    		if(this.nodes4.isEmpty()==false)
-    			node=this.nodes4.poll();
-    		else if(this.nodes3.isEmpty()==false)
-    			node=this.nodes3.poll();
-    		else if(this.nodes2.isEmpty()==false)
-    			node=this.nodes2.poll();
-    		else if(this.nodes1.isEmpty()==false)
-    			node=this.nodes1.poll();
-    		else
-    			node=this.nodes0.poll();
-    		
-    		if(node!=null && node.getElement()!=null) {
-    			if(this.isOnCutBorder[node.getElement().getVertex().index]==true) {
-    				this.vertexRemoval(node);
-    				countRemoved++;
-    			}
-    		}
-    	}
+    	int countRemoved=this.processQueue();
     	if(this.verbosity>0) {
     		System.out.println("Removed: "+countRemoved);
     		this.printCutBorderInfo();
@@ -350,14 +319,14 @@ public class BalancedSchnyderWood extends PlanarTriSchnyderWood {
     	
     	
     	
-    	node=this.outerCycle.getFirst().getNext();
-    	if(node==null) {
+    	node=this.outerCycle.getNext(this.outerCycle.getFirst());
+    	if(node==CutBorder.NONE) {
     		throw new Error("error null reference: first boundary node not defined");
     	}
     	countRemoved=0;
     	while(this.outerCycle.size()>1) {
     		//System.out.println("\nCut border: \n"+this.toString());
-    		//System.out.println("Processing vertex "+node.getElement().getVertex().index);
+    		//System.out.println("Processing vertex "+this.map.halfedges[this.outerCycle.getElement(node)].getVertex().index);
     		node=this.vertexRemoval(node);
     		countRemoved++;
     	}
@@ -392,19 +361,19 @@ public class BalancedSchnyderWood extends PlanarTriSchnyderWood {
     /**
      * @return a good candidate
      */
-    public DListNode<Halfedge<Point_>> findCandidate() {
-    	DListNode<Halfedge<Point_>> node=this.outerCycle.getFirst().getNext();
-    	if(node==null) {
+    public int findCandidate() {
+    	int node=this.outerCycle.getNext(this.outerCycle.getFirst());
+    	if(node==CutBorder.NONE) {
     		throw new Error("error null reference: first boundary node not defined");
     	}
     	int count=0;
-    	while(node!=null && node.getElement()!=null) {
-    		if(this.countIngoingRedBlue(node.getElement().getVertex())>0)
+    	while(node!=CutBorder.NONE && this.outerCycle.getElement(node)!=CutBorder.NONE) {
+    		if(this.countIngoingRedBlue(this.map.halfedges[this.outerCycle.getElement(node)].getVertex())>0)
     			return node;
     		else
-    			node=node.getNext();
+    			node=this.outerCycle.getNext(node);
     	}
-    	return null;
+    	return CutBorder.NONE;
     }
 
     /**
@@ -413,8 +382,8 @@ public class BalancedSchnyderWood extends PlanarTriSchnyderWood {
     public void printCutBorderInfo() {
     	System.out.print("CutBorder info: \n\tsize:"+this.outerCycle.size()+" - ");
     	
-    	DListNode<Halfedge<Point_>> node=this.outerCycle.getFirst().getNext();
-    	if(node==null) {
+    	int node=this.outerCycle.getNext(this.outerCycle.getFirst());
+    	if(node==CutBorder.NONE) {
     		throw new Error("error null reference: first boundary node not defined");
     	}
     	int count0=0;
@@ -427,37 +396,34 @@ public class BalancedSchnyderWood extends PlanarTriSchnyderWood {
     	if(this.outerCycle.size()<11)
     		printVertices=true;
     	
-    	while(node!=null && node.getElement()!=null) {
+    	while(node!=CutBorder.NONE && this.outerCycle.getElement(node)!=CutBorder.NONE) {
     		if(printVertices==true)
-    			System.out.print(" v"+node.getElement().getVertex().index);
+    			System.out.print(" v"+this.map.halfedges[this.outerCycle.getElement(node)].getVertex().index);
     		
-    		if(this.countIngoingRedBlue(node.getElement().getVertex())==0)
+    		if(this.countIngoingRedBlue(this.map.halfedges[this.outerCycle.getElement(node)].getVertex())==0)
     			count0++;
-    		else if(this.countIngoingRedBlue(node.getElement().getVertex())==1)
+    		else if(this.countIngoingRedBlue(this.map.halfedges[this.outerCycle.getElement(node)].getVertex())==1)
     			count1++;
-    		else if(this.countIngoingRedBlue(node.getElement().getVertex())==2)
+    		else if(this.countIngoingRedBlue(this.map.halfedges[this.outerCycle.getElement(node)].getVertex())==2)
     			count2++;
-    		else if(this.countIngoingRedBlue(node.getElement().getVertex())==3)
+    		else if(this.countIngoingRedBlue(this.map.halfedges[this.outerCycle.getElement(node)].getVertex())==3)
     			count3++;
-    		else if(this.countIngoingRedBlue(node.getElement().getVertex())==4)
+    		else if(this.countIngoingRedBlue(this.map.halfedges[this.outerCycle.getElement(node)].getVertex())==4)
     			count4++;
-    		node=node.getNext();
+    		node=this.outerCycle.getNext(node);
     	}
     	System.out.println("\n\tIngoing: "+count0+", "+count1+", "+count2+", "+count3+", "+count4);
     	
-//    	System.out.println("\tQueues: "+this.nodes0.size()+", "+this.nodes1.size()+", "+this.nodes2.size()+", "+this.nodes3.size()+", "+this.nodes4.size());
-//    	System.out.println("\t\tqueue 0: "+this.printQueue(this.nodes0));
-//    	System.out.println("\t\tqueue 1: "+this.printQueue(this.nodes1));
-//    	System.out.println("\t\tqueue 2: "+this.printQueue(this.nodes2));
+//    	System.out.println("\t"+this.queue);
     }
 
     /**
      * Print the contents of the queue
      */
-    public String printQueue(LinkedList<DListNode<Halfedge<Point_>>> q) {
+    public String printQueue(LinkedList<Integer> q) {
     	String result="";
-    	for(DListNode<Halfedge<Point_>> node: q) {
-    		result=result+" "+node.getElement().getVertex().index;
+    	for(int node: q) {
+    		result=result+" "+this.map.halfedges[this.outerCycle.getElement(node)].getVertex().index;
     	}
     	return result;
     }
@@ -465,24 +431,24 @@ public class BalancedSchnyderWood extends PlanarTriSchnyderWood {
     /**
      * Print stats about the cut-border
      */
-    public LinkedList<DListNode> getCutBorder() {
-    	LinkedList<DListNode>result=new LinkedList<DListNode>();
+    public LinkedList<Integer> getCutBorder() {
+    	LinkedList<Integer>result=new LinkedList<Integer>();
     	//System.out.print("CutBorder: "+this.outerCycle.size());
     	
-    	DListNode<Halfedge<Point_>> node=this.outerCycle.getFirst().getNext();
-    	if(node==null) {
+    	int node=this.outerCycle.getNext(this.outerCycle.getFirst());
+    	if(node==CutBorder.NONE) {
     		throw new Error("error null reference: first boundary node not defined");
     	}
     	int count0=0;
     	int count1=0;
     	int count2=0;
     	int count3=0;
-    	while(node!=null && node.getElement()!=null) {
-    		if(this.countIngoingRedBlue(node.getElement().getVertex())==0)
+    	while(node!=CutBorder.NONE && this.outerCycle.getElement(node)!=CutBorder.NONE) {
+    		if(this.countIngoingRedBlue(this.map.halfedges[this.outerCycle.getElement(node)].getVertex())==0)
     			result.addLast(node);
     		else 
     			result.addFirst(node);
-    		node=node.getNext();
+    		node=this.outerCycle.getNext(node);
     	}
     	return result;
     }
@@ -0,0 +1,214 @@
+package sw;
+
+/**
+ * A bucket priority queue storing elements 0..n-1 with small integer priorities (between 0 and maxKey). <br>
+ * <br>
+ * Each bucket is a doubly linked list, stored in primitive arrays (as in <tt>CutBorder</tt>): <br>
+ * -) an element belongs to at most one bucket, so the queue never contains stale entries and never overflows <br>
+ * -) insertions, removals and priority changes (increase-key and decrease-key) take O(1) time <br>
+ * -) the largest and smallest non empty buckets are maintained lazily: empty buckets are skipped when polling <br>
+ * <br>
+ * Ties between elements having the same priority are broken according to a policy: <br>
+ * -) FIFO: the element which has been inserted (or whose priority has changed) first is returned first <br>
+ * -) LIFO: the element which has been inserted (or whose priority has changed) last is returned first <br>
+ * <br>
+ * Remark: priorities larger than maxKey are stored in the last bucket (and negative priorities in the first one)
+ */
+public class BucketQueue {
+	/** tie-breaking policies */
+	public static final int FIFO=0, LIFO=1;
+	/** undefined element (or element not in the queue) */
+	public static final int NONE=-1;
+
+	/** tie-breaking policy (FIFO or LIFO) */
+	public int policy;
+
+	/** bucket of each element (NONE, if the element is not in the queue) */
+	private int[] bucket;
+	/** previous and next elements in the same bucket */
+	private int[] prev, next;
+	/** first and last elements of each bucket */
+	private int[] first, last;
+
+	/** elements are integers 0..n-1 (the arrays can be larger) */
+	private int n;
+	/** number of elements */
+	private int size;
+	/** bounds on the indices of the non empty buckets (updated lazily) */
+	private int minBucket, maxBucket;
+
+	/**
+	 * Initialize an empty queue, for elements 0..n-1 and priorities 0..maxKey
+	 */
+	public BucketQueue(int n, int maxKey, int policy) {
+		if(maxKey<0)
+			throw new Error("Error: wrong maximal priority ("+maxKey+")");
+		if(policy!=FIFO && policy!=LIFO)
+			throw new Error("Error: unknown tie-breaking policy ("+policy+")");
+		this.policy=policy;
+		this.first=new int[maxKey+1];
+		this.last=new int[maxKey+1];
+		this.reset(n);
+	}
+
+	/**
+	 * Remove all elements, and make the queue able to store elements 0..n-1: the arrays are only reallocated when they are too small
+	 */
+	public void reset(int n) {
+		if(this.bucket==null || this.bucket.length<n) {
+			this.bucket=new int[n];
+			this.prev=new int[n];
+			this.next=new int[n];
+			this.n=n; // all elements must be removed
+		}
+		this.reset();
+		this.n=n;
+	}
+
+	/**
+	 * Remove all elements
+	 */
+	public void reset() {
+		for(int i=0;i<this.n;i++) // elements larger than n-1 are not in the queue
+			this.bucket[i]=NONE;
+		for(int k=0;k<this.first.length;k++) {
+			this.first[k]=NONE;
+			this.last[k]=NONE;
+		}
+		this.size=0;
+		this.minBucket=this.first.length;
+		this.maxBucket=-1;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size==0;
+	}
+
+	/**
+	 * Check whether an element is stored in the queue
+	 */
+	public boolean contains(int x) {
+		return this.bucket[x]!=NONE;
+	}
+
+	/**
+	 * Return the (clamped) priority of an element, or NONE if the element is not in the queue
+	 */
+	public int getKey(int x) {
+		return this.bucket[x];
+	}
+
+	/**
+	 * Insert an element with a given priority: if the element is already in the queue, its priority is updated
+	 * (the element is then considered as the last inserted one, for breaking ties)
+	 */
+	public void add(int x, int key) {
+		if(this.bucket[x]!=NONE)
+			this.remove(x);
+		int k=Math.max(0, Math.min(key, this.first.length-1));
+
+		// append the element at the end of bucket 'k'
+		this.bucket[x]=k;
+		this.next[x]=NONE;
+		this.prev[x]=this.last[k];
+		if(this.last[k]!=NONE)
+			this.next[this.last[k]]=x;
+		else
+			this.first[k]=x;
+		this.last[k]=x;
+
+		this.size++;
+		if(k<this.minBucket)
+			this.minBucket=k;
+		if(k>this.maxBucket)
+			this.maxBucket=k;
+	}
+
+	/**
+	 * Change the priority of an element already in the queue (increase-key or decrease-key)
+	 */
+	public void changeKey(int x, int key) {
+		if(this.bucket[x]==NONE)
+			throw new Error("Error: element "+x+" not in the queue");
+		this.add(x, key);
+	}
+
+	/**
+	 * Remove an element from the queue (nothing is done if the element is not in the queue)
+	 */
+	public void remove(int x) {
+		int k=this.bucket[x];
+		if(k==NONE)
+			return;
+		if(this.prev[x]!=NONE)
+			this.next[this.prev[x]]=this.next[x];
+		else
+			this.first[k]=this.next[x];
+		if(this.next[x]!=NONE)
+			this.prev[this.next[x]]=this.prev[x];
+		else
+			this.last[k]=this.prev[x];
+		this.bucket[x]=NONE;
+		this.size--;
+	}
+
+	/**
+	 * Remove and return an element with the largest priority (NONE if the queue is empty)
+	 */
+	public int pollMax() {
+		if(this.size==0)
+			return NONE;
+		while(this.first[this.maxBucket]==NONE) // skip empty buckets
+			this.maxBucket--;
+		return this.poll(this.maxBucket);
+	}
+
+	/**
+	 * Remove and return an element with the smallest priority (NONE if the queue is empty)
+	 */
+	public int pollMin() {
+		if(this.size==0)
+			return NONE;
+		while(this.first[this.minBucket]==NONE) // skip empty buckets
+			this.minBucket++;
+		return this.poll(this.minBucket);
+	}
+
+	/**
+	 * Remove and return an element of a non empty bucket, according to the tie-breaking policy
+	 */
+	private int poll(int k) {
+		int x=(this.policy==FIFO) ? this.first[k] : this.last[k];
+		this.remove(x);
+		if(this.size==0) { // the bounds can be safely reset
+			this.minBucket=this.first.length;
+			this.maxBucket=-1;
+		}
+		return x;
+	}
+
+	/**
+	 * Return the number of elements having a given priority
+	 */
+	public int sizeOfBucket(int key) {
+		int count=0;
+		for(int x=this.first[key];x!=NONE;x=this.next[x])
+			count++;
+		return count;
+	}
+
+	/**
+	 * Returns a string representing the sizes of the buckets
+	 */
+	public String toString() {
+		String result="Buckets [size="+this.size+", policy="+((this.policy==FIFO) ? "FIFO" : "LIFO")+", buckets=";
+		for(int k=0;k<this.first.length;k++)
+			result=result+" "+this.sizeOfBucket(k);
+		return result+"]";
+	}
+
+}
@@ -0,0 +1,186 @@
+package sw;
+
+/**
+ * An array based implementation of the cut-border (a doubly linked list of half-edges), used for the vertex shelling. <br>
+ * <br>
+ * List nodes are integers: node 'i' stores the half-edge element[i], and its neighbors in the list are prev[i] and next[i].
+ * The arrays are preallocated, and the nodes of deleted elements are recycled (using a free list): inserting and deleting elements
+ * does not allocate memory. <br>
+ * As in <tt>Jcg.util.DLinkedList</tt>, the list has two sentinel nodes (HEAD and TAIL) storing no elements: <br>
+ * -) <tt>getFirst()</tt> and <tt>getLast()</tt> return the nodes storing the first and last elements <br>
+ * -) the sentinels, and the deleted nodes, store the element NONE <br>
+ * <br>
+ * Since nodes are recycled, references to nodes kept outside the list (e.g. in queues) are stored as handles
+ * (see <tt>getHandle()</tt>), which become invalid when the node is deleted. <br>
+ * <br>
+ * Remark: the cut-border is a simple cycle, so its size never exceeds the number of vertices
+ */
+public class CutBorder {
+	/** sentinel nodes */
+	public static final int HEAD=0, TAIL=1;
+	/** undefined node or element */
+	public static final int NONE=-1;
+
+	/** previous and next nodes */
+	public int[] prev, next;
+	/** half-edge stored at each node */
+	public int[] element;
+	/** number of times each node has been deleted (used for validating handles) */
+	private int[] generation;
+
+	/** maximal number of elements (the arrays can be larger) */
+	private int capacity;
+	/** number of elements */
+	private int size;
+	/** first node of the free list (the list of available nodes is linked with the array 'next') */
+	private int free;
+
+	/**
+	 * Initialize an empty list, able to store a given number of elements
+	 */
+	public CutBorder(int capacity) {
+		this.reset(capacity);
+	}
+
+	/**
+	 * Remove all elements, and make the list able to store a given number of elements: the arrays are only reallocated
+	 * when they are too small (handles obtained before are no longer valid)
+	 */
+	public void reset(int capacity) {
+		if(this.next==null || this.next.length<capacity+2) {
+			this.prev=new int[capacity+2];
+			this.next=new int[capacity+2];
+			this.element=new int[capacity+2];
+			this.generation=new int[capacity+2];
+		}
+		this.capacity=capacity;
+		this.reset();
+	}
+
+	/**
+	 * Remove all elements (the handles of the nodes are no longer valid)
+	 */
+	public void reset() {
+		this.next[HEAD]=TAIL;
+		this.prev[HEAD]=NONE;
+		this.prev[TAIL]=HEAD;
+		this.next[TAIL]=NONE;
+		this.element[HEAD]=NONE;
+		this.element[TAIL]=NONE;
+		this.size=0;
+
+		int last=this.capacity+2; // nodes 2..capacity+1 are available
+		for(int i=2;i<last;i++) {
+			this.next[i]=(i+1<last) ? i+1 : NONE;
+			this.element[i]=NONE;
+			this.generation[i]++;
+		}
+		this.free=(last>2) ? 2 : NONE;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size==0;
+	}
+
+	/** return the node storing the first element (TAIL, if the list is empty) */
+	public int getFirst() {
+		return this.next[HEAD];
+	}
+
+	/** return the node storing the last element (HEAD, if the list is empty) */
+	public int getLast() {
+		return this.prev[TAIL];
+	}
+
+	public int getNext(int node) {
+		return this.next[node];
+	}
+
+	public int getPrev(int node) {
+		return this.prev[node];
+	}
+
+	public int getElement(int node) {
+		return this.element[node];
+	}
+
+	public void setElement(int node, int e) {
+		this.element[node]=e;
+	}
+
+	/**
+	 * Return a handle to a node, which remains valid until the node is deleted
+	 */
+	public long getHandle(int node) {
+		return ((long)this.generation[node]<<32)|node;
+	}
+
+	/**
+	 * Return the node referenced by a handle, or NONE if the node has been deleted in the meantime
+	 */
+	public int getNode(long handle) {
+		int node=(int)handle;
+		if(this.generation[node]!=(int)(handle>>>32))
+			return NONE;
+		return node;
+	}
+
+	/**
+	 * Add an element at the end of the list
+	 *
+	 * @return  the node storing the new element
+	 */
+	public int add(int e) {
+		return this.insertAfter(this.prev[TAIL], e);
+	}
+
+	/**
+	 * Insert an element after a given node
+	 *
+	 * @return  the node storing the new element
+	 */
+	public int insertAfter(int node, int e) {
+		if(this.free==NONE)
+			throw new Error("Error: cut-border is full ("+this.capacity+" elements)");
+		int result=this.free;
+		this.free=this.next[result];
+
+		int following=this.next[node];
+		this.element[result]=e;
+		this.prev[result]=node;
+		this.next[result]=following;
+		this.prev[following]=result;
+		this.next[node]=result;
+		this.size++;
+		return result;
+	}
+
+	/**
+	 * Insert an element before a given node
+	 *
+	 * @return  the node storing the new element
+	 */
+	public int insertBefore(int node, int e) {
+		return this.insertAfter(this.prev[node], e);
+	}
+
+	/**
+	 * Remove a node from the list (the node is recycled)
+	 */
+	public void delete(int node) {
+		int preceding=this.prev[node], following=this.next[node];
+		this.next[preceding]=following;
+		this.prev[following]=preceding;
+		this.size--;
+
+		this.element[node]=NONE;
+		this.generation[node]++;
+		this.next[node]=this.free;
+		this.free=node;
+	}
+
+}
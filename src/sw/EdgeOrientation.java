@@ -44,9 +44,11 @@ public abstract class EdgeOrientation {
     }
     
     public Color[] getEdgeColors() {
-    	Color[] result=new Color[this.edgeColor.length];
+    	// the array 'edgeColor' can be larger than the number of half-edges (when it is reused for several meshes)
+    	int size=(this.polyhedron!=null) ? this.polyhedron.sizeOfHalfedges() : this.edgeColor.length;
+    	Color[] result=new Color[size];
     	
-    	for(int i=0;i<this.edgeColor.length;i++) {
+    	for(int i=0;i<size;i++) {
     		if(edgeColor[i]==0) result[i]=Color.red;
     		else if(edgeColor[i]==1) result[i]=Color.blue;
     		else if(edgeColor[i]==2) result[i]=Color.black;
@@ -0,0 +1,405 @@
+package sw;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel computation of the Schnyder drawing, on the common fork-join pool. <br>
+ * <br>
+ * The contour of each tree T_j is an Euler tour of the half-edges (the successor of 'h' is prev[h] if 'h' has color j, and prev[h^1] otherwise):
+ * sub-tree sizes, heights and cumulative sizes are prefix sums along these tours. The computation is split in phases, each one processing
+ * blocks of half-edges (or vertices) in parallel: <br>
+ * -) each tour is ranked (list ranking): the tour is split into sub-lists starting at regularly spaced half-edges, which are traversed
+ * in parallel; the offsets of the sub-lists are then computed sequentially, and the edges of the tree are stored in the order of the tour <br>
+ * -) sub-tree sizes (in T0 and T2) are obtained by counting the edges entering a sub-tree between the two visits of its root edge <br>
+ * -) heights and cumulative sizes (in T0, T1 and T2) are prefix sums of the weights of the edges, added when an edge is visited the first
+ * time and subtracted when it is visited the second time <br>
+ * -) the coordinates of the vertices are computed independently <br>
+ * Each prefix sum is computed in two passes (sums of the blocks, then prefix sums inside the blocks), so that the amount of work
+ * remains linear. <br>
+ * <br>
+ * Remark: the results (<tt>data</tt>, <tt>dataP1T2</tt>, <tt>dataP2T0</tt> and <tt>coordinates</tt>) are the same as the ones
+ * computed by <tt>SchnyderDrawing</tt>, which is used for small meshes and on machines with few processors (see <tt>sequentialThreshold</tt>) <br>
+ * Warning: the speed-up on several cores has not been measured, thus <tt>SchnyderDrawing</tt> remains the default (see <tt>SchnyderLayout</tt>)
+ */
+public class ParallelSchnyderDrawing extends SchnyderDrawing {
+	/** number of tasks (blocks of half-edges or vertices) in each phase */
+	public int nTasks=4*Runtime.getRuntime().availableProcessors();
+	/**
+	 * Default values of <tt>sequentialThreshold</tt> and <tt>minProcessors</tt>. <br>
+	 * On a single core, the parallel computation performs between 1.4 and 3 times the work of the sequential one on meshes
+	 * whose vertices are randomly numbered (the ratio decreases with n: 3 below 2^14 vertices, 2.1 at 2^16, 1.4 at 2^18),
+	 * and about 5 times on a grid whose vertices are numbered row by row (the sequential traversal is cache friendly). <br>
+	 * The parallel computation can thus only be faster with several cores on large meshes (the speed-up on several cores has not been measured)
+	 */
+	public static final int SEQUENTIAL_THRESHOLD=1<<16, MIN_PROCESSORS=8;
+	/** meshes having fewer vertices are processed sequentially */
+	public final int sequentialThreshold;
+	/** machines having fewer processors perform the computation sequentially (see <tt>sequentialThreshold</tt>) */
+	public final int minProcessors;
+
+	/** phases of the computation */
+	private static final int LOCAL_RANKS=0, GLOBAL_RANKS=1, COUNT_BLOCKS=2, COUNT_DESCENDANTS=3, SUBTREE_SIZES=4, SUM_BLOCKS=5,
+			PREFIX_PATHS=6, EMBEDDING=7;
+
+	/**
+	 * The edges of T0, T1 and T2, in the order of the tours: the first visit of the edge from 'v' to its parent is stored as 2*v+1,
+	 * and the second visit as 2*v
+	 */
+	private int[][] tour=new int[3][];
+	/** number of visits stored in each tour */
+	private int[] tourLength=new int[3];
+
+	/** for the list ranking: the sub-list containing each half-edge (-1 if undefined), and its position (among the edges of T_j) */
+	private int[] sublist, position;
+	/** for the list ranking: length, successor and offset (in the tour) of each sub-list */
+	private int[] sublistLength, nextSplitter, sublistOffset;
+	/** the sub-lists start at half-edges whose index is a multiple of 'stride' (and at the head of the tour) */
+	private int stride, nSublists;
+
+	/** for sub-tree sizes: number of edges entering T_j in the tour, up to the first and the second visit of the edge of each vertex (or -1) */
+	private int[] first, second;
+	/** partial sums of the blocks (three sums per block) */
+	private int[] blockSum;
+
+	/** the array storing the coordinates of the vertices, during the computation of the embedding */
+	private int[] embedding;
+
+	/** current tree, head and number of visits of the current tour */
+	private int tree, head, cutoff;
+
+	public ParallelSchnyderDrawing(PlanarTriSchnyderWood sw) {
+		this(sw, DEFAULT_LAYOUT, SEQUENTIAL_THRESHOLD, MIN_PROCESSORS);
+	}
+
+	public ParallelSchnyderDrawing(PlanarTriSchnyderWood sw, int layout) {
+		this(sw, layout, SEQUENTIAL_THRESHOLD, MIN_PROCESSORS);
+	}
+
+	/**
+	 * @param layout  the memory layout of the data (<tt>AOS</tt> or <tt>SOA</tt>)
+	 * @param sequentialThreshold  meshes having fewer vertices are processed sequentially
+	 * @param minProcessors  machines having fewer processors perform the computation sequentially
+	 */
+	public ParallelSchnyderDrawing(PlanarTriSchnyderWood sw, int layout, int sequentialThreshold, int minProcessors) {
+		super(sw, layout);
+		this.sequentialThreshold=sequentialThreshold;
+		this.minProcessors=minProcessors;
+	}
+
+	/**
+	 * Says whether the Schnyder drawing of the current mesh is computed sequentially (see <tt>sequentialThreshold</tt>)
+	 */
+	public boolean isSequential() {
+		return this.n<this.sequentialThreshold || Runtime.getRuntime().availableProcessors()<this.minProcessors;
+	}
+
+	/**
+	 * Compute the sub-tree sizes, heights and cumulative sizes in the trees T0, T1 and T2 (in parallel)
+	 */
+	public void computeTreeStatistics() {
+		if(this.isSequential()) {
+			super.computeTreeStatistics();
+			return;
+		}
+		if(this.verbosity>=1)
+			System.out.print("Computing the sizes and heights of subtrees in T0, T1 and T2 (in parallel, "+this.nTasks+" tasks)...");
+		long startTime=System.nanoTime(), endTime; // for evaluating time performances
+
+		int n=this.n, size=this.sw.map.size;
+		if(this.sublist==null || this.sublist.length<size || this.first.length<n) {
+			this.sublist=new int[size];
+			this.position=new int[size];
+			this.first=new int[n];
+			this.second=new int[n];
+			Arrays.fill(this.sublist, -1);
+			Arrays.fill(this.first, -1);
+			Arrays.fill(this.second, -1);
+		}
+		this.stride=Math.max(256, Integer.highestOneBit(Math.max(1, size/(16*this.nTasks))));
+		this.nSublists=(size+this.stride-1)/this.stride;
+		if(this.sublistLength==null || this.sublistLength.length<this.nSublists+1) {
+			this.sublistLength=new int[this.nSublists+1];
+			this.nextSplitter=new int[this.nSublists+1];
+			this.sublistOffset=new int[this.nSublists+1];
+		}
+		if(this.blockSum==null || this.blockSum.length<3*this.nTasks)
+			this.blockSum=new int[3*this.nTasks];
+
+		int[] data=this.data;
+		int v0=this.sw.v0.index, v1=this.sw.v1.index, v2=this.sw.v2.index;
+		int vs=this.vertexStride, s0=3*this.fieldStride, s2=5*this.fieldStride; // sub-tree sizes in T0 and T2
+		for(int i=0;i<n;i++) {
+			data[i*vs+s0]=1; // all the sub-trees in T0 have size 1 at the beginning
+			data[i*vs+s2]=1; // all the sub-trees in T2 have size 1 at the beginning
+		}
+		data[v1*vs+s0]=0; // v1 does not belong to T0
+		data[v2*vs+s0]=0; // v2 does not belong to T0
+		data[v0*vs+s2]=0; // v0 does not belong to T2
+		data[v1*vs+s2]=0; // v1 does not belong to T2
+
+		// rank the tours (from their first half-edge, to the last half-edge processed by the sequential traversals)
+		int[] next=this.sw.map.next, prev=this.sw.map.prev;
+		int root=this.sw.rootEdge.index;
+		this.rankTour(0, prev[root], next[root^1]^1); // from the first edge toward v0, to the edge (v2, v0)
+		this.rankTour(1, prev[prev[root^1]^1], root); // from the first inner edge toward v1, to the edge (v0, v1)
+		this.rankTour(2, prev[next[root^1]^1], prev[prev[root^1]]); // from the first inner edge toward v2, to the edge (v1, v2)
+
+		// sub-tree sizes in T0 and T2
+		this.tree=0;
+		int count=this.runPrefixSums(COUNT_DESCENDANTS);
+		data[v0*vs+s0]=count+1-((this.first[v1]>=0) ? 1 : 0); // the edges entering T0 (v1 does not belong to T0)
+		this.run(SUBTREE_SIZES, n);
+		this.tree=2;
+		this.runPrefixSums(COUNT_DESCENDANTS);
+		this.run(SUBTREE_SIZES, n);
+		data[v2*vs+s2]=n-2; // v2 has a sub-tree of size 'n-2'
+
+		// heights and cumulative sizes along the paths to the roots
+		for(int j=0;j<3;j++) {
+			this.tree=j;
+			this.runPrefixSums(PREFIX_PATHS);
+		}
+
+		endTime=System.nanoTime();
+		double duration=(double)(endTime-startTime)/1000000000.;
+		if(this.verbosity>1)
+			System.out.println("done ("+duration+" seconds)");
+		else if(this.verbosity==1)
+			System.out.println("done");
+	}
+
+	/**
+	 * Compute the integer coordinates of the vertices in the 2D Schnyder embedding, and store them in a given array (in parallel)
+	 */
+	protected void compute2DCoordinates(int[] coordinates) {
+		if(this.isSequential())
+			super.compute2DCoordinates(coordinates);
+		else {
+			this.embedding=coordinates;
+			this.run(EMBEDDING, this.n);
+			this.embedding=null;
+		}
+	}
+
+	/**
+	 * Rank the tour of the tree T_j: the visits of the edges of T_j, from 'head' to 'last' (excluded), are stored in the array tour[j]
+	 */
+	private void rankTour(int j, int head, int last) {
+		this.tree=j;
+		this.head=head;
+		this.run(LOCAL_RANKS, this.nSublists+1);
+
+		// compute the offsets of the sub-lists (sequentially), following the tour from its head
+		Arrays.fill(this.sublistOffset, 0, this.nSublists+1, -1);
+		int h=head, offset=0;
+		do {
+			int k=this.sublistId(h);
+			this.sublistOffset[k]=offset;
+			offset+=this.sublistLength[k];
+			h=this.nextSplitter[k];
+		} while(h!=head);
+		if(this.sublist[last]<0 || this.sublistOffset[this.sublist[last]]<0)
+			throw new Error("Error: wrong Schnyder wood (the contour of T"+j+" does not reach the last edge)");
+		this.cutoff=this.sublistOffset[this.sublist[last]]+this.position[last];
+
+		if(this.tour[j]==null || this.tour[j].length<this.cutoff)
+			this.tour[j]=new int[this.cutoff];
+		this.tourLength[j]=this.cutoff;
+		this.run(GLOBAL_RANKS, this.sw.map.size);
+	}
+
+	/** says whether a half-edge starts a sub-list, in the current tour */
+	private boolean isSplitter(int h) {
+		return (h&(this.stride-1))==0 || h==this.head;
+	}
+
+	/** index of the sub-list starting at a given half-edge */
+	private int sublistId(int h) {
+		return ((h&(this.stride-1))==0) ? h/this.stride : this.nSublists;
+	}
+
+	/**
+	 * Compute prefix sums along the current tour, in two passes: sums of the blocks, and prefix sums inside the blocks
+	 * (starting from the sums of the preceding blocks)
+	 *
+	 * @return the first sum, for the whole tour
+	 */
+	private int runPrefixSums(int phase) {
+		int length=this.tourLength[this.tree];
+		this.run((phase==COUNT_DESCENDANTS) ? COUNT_BLOCKS : SUM_BLOCKS, length);
+		int s0=0, s1=0, s2=0;
+		for(int b=0;b<this.nTasks;b++) { // exclusive prefix sums of the blocks
+			int t0=this.blockSum[3*b], t1=this.blockSum[3*b+1], t2=this.blockSum[3*b+2];
+			this.blockSum[3*b]=s0;
+			this.blockSum[3*b+1]=s1;
+			this.blockSum[3*b+2]=s2;
+			s0+=t0;
+			s1+=t1;
+			s2+=t2;
+		}
+		this.run(phase, length);
+		return s0;
+	}
+
+	/**
+	 * Process the elements [0..size-1] in parallel (in 'nTasks' blocks)
+	 */
+	private void run(int phase, int size) {
+		Block[] blocks=new Block[this.nTasks];
+		for(int b=0;b<this.nTasks;b++)
+			blocks[b]=new Block(phase, b, (int)((long)size*b/this.nTasks), (int)((long)size*(b+1)/this.nTasks));
+		ForkJoinTask.invokeAll(blocks);
+	}
+
+	/**
+	 * A block of elements, processed by a task
+	 */
+	private class Block extends RecursiveAction {
+		private static final long serialVersionUID=1L;
+		int phase, index, start, end;
+
+		Block(int phase, int index, int start, int end) {
+			this.phase=phase;
+			this.index=index;
+			this.start=start;
+			this.end=end;
+		}
+
+		protected void compute() {
+			process(this.phase, this.index, this.start, this.end);
+		}
+	}
+
+	/**
+	 * Process the elements [start..end-1] of a block, in a given phase
+	 */
+	private void process(int phase, int block, int start, int end) {
+		int[] prev=this.sw.map.prev, vertex=this.sw.map.vertex;
+		byte[] edgeColor=this.sw.edgeColor;
+		boolean[] isWellOriented=this.sw.isWellOriented;
+		int j=this.tree;
+		int[] tour=this.tour[j];
+
+		switch(phase) {
+		case LOCAL_RANKS: // traverse the sub-lists starting in the block
+			for(int k=start;k<end;k++) {
+				if(k==this.nSublists && (this.head&(this.stride-1))==0)
+					continue; // the head already starts a sub-list
+				int h=(k<this.nSublists) ? k*this.stride : this.head;
+				int p=0; // number of edges of T_j in the sub-list, preceding 'h'
+				do {
+					this.sublist[h]=k;
+					this.position[h]=p;
+					if(edgeColor[h]==j) { // follow the edges of T_j
+						p++;
+						h=prev[h];
+					}
+					else // turn around the current vertex
+						h=prev[h^1];
+				} while(this.isSplitter(h)==false);
+				this.sublistLength[k]=p;
+				this.nextSplitter[k]=h;
+			}
+			break;
+		case GLOBAL_RANKS: // store the edges of T_j in the order of the tour
+			for(int h=start;h<end;h++) {
+				int k=this.sublist[h];
+				if(k<0)
+					continue; // a half-edge not reached by the traversal of the sub-lists
+				this.sublist[h]=-1;
+				int offset=this.sublistOffset[k];
+				if(edgeColor[h]!=j || offset<0 || offset+this.position[h]>=this.cutoff)
+					continue;
+				if(isWellOriented[h]==true) // an edge visited the first time (toward the parent of its source)
+					tour[offset+this.position[h]]=(vertex[h^1]<<1)|1;
+				else // an edge visited the second time
+					tour[offset+this.position[h]]=vertex[h]<<1;
+			}
+			break;
+		case COUNT_BLOCKS: { // number of edges visited the first time, in each block
+			int s0=0;
+			for(int i=start;i<end;i++)
+				s0+=tour[i]&1;
+			this.blockSum[3*block]=s0;
+			break;
+		}
+		case COUNT_DESCENDANTS: { // number of edges visited the first time, up to the two visits of each edge
+			int s0=this.blockSum[3*block];
+			int[] first=this.first, second=this.second;
+			for(int i=start;i<end;i++) {
+				int e=tour[i];
+				if((e&1)==1)
+					first[e>>1]=++s0;
+				else
+					second[e>>1]=s0;
+			}
+			break;
+		}
+		case SUBTREE_SIZES: { // the sub-tree rooted at 'v' contains the edges visited the first time between the two visits of the edge of 'v'
+			int[] data=this.data, first=this.first, second=this.second;
+			int v0=this.sw.v0.index, v1=this.sw.v1.index, v2=this.sw.v2.index;
+			int vs=this.vertexStride, size=(3+j)*this.fieldStride;
+			for(int v=start;v<end;v++) {
+				if(first[v]>=0 && second[v]>=0 && v!=v0 && v!=v1 && v!=v2)
+					data[v*vs+size]=second[v]-first[v]+1;
+				first[v]=-1;
+				second[v]=-1;
+			}
+			break;
+		}
+		case SUM_BLOCKS:
+		case PREFIX_PATHS:
+			this.prefixSums(block, start, end, phase==PREFIX_PATHS);
+			break;
+		case EMBEDDING:
+			this.compute2DEmbedding(this.embedding, start, end);
+			break;
+		}
+	}
+
+	/**
+	 * Compute the heights and the cumulative sizes of the sub-trees along the paths to the root of the current tree T_j: <br>
+	 * -) the cumulative sizes of the sub-trees of T2 (for T0), of T0 and T2 (for T1), and of T0 (for T2) <br>
+	 * Each edge of T_j adds the weights of its source when it is visited the first time, and subtracts them when it is visited the second time.
+	 *
+	 * @param write  if false, only the sums of the block are computed (first pass)
+	 */
+	private void prefixSums(int block, int start, int end, boolean write) {
+		int[] tour=this.tour[this.tree], data=this.data;
+		int s0=0, s1=0, s2=0;
+		if(write==true) { // start from the sums of the preceding blocks
+			s0=this.blockSum[3*block];
+			s1=this.blockSum[3*block+1];
+			s2=this.blockSum[3*block+2];
+		}
+		int vs=this.vertexStride, fs=this.fieldStride;
+		int w1=((this.tree==0) ? 5 : 3)*fs, w2=5*fs; // the weights are sub-tree sizes (in T2 for T0, in T0 for T1 and T2)
+		int height=this.tree*fs, cumulative=((this.tree==0) ? 7 : 6)*fs;
+		boolean twoWeights=(this.tree==1); // for T1, the sizes of sub-trees in T2 are also summed
+		for(int i=start;i<end;i++) {
+			int e=tour[i], v=e>>1;
+			int sign=((e&1)<<1)-1; // +1 for the first visit, -1 for the second visit
+			s0+=sign;
+			s1+=sign*data[v*vs+w1];
+			if(twoWeights==true)
+				s2+=sign*data[v*vs+w2];
+			if(write==true && sign>0) {
+				data[v*vs+height]=s0; // height in T_j
+				if(this.tree==2)
+					this.dataP2T0[v]=s1; // cumulative size of the sub-trees of T0 along the path to v2
+				else // cumulative size of the sub-trees of T2 (resp. T0) along the path to v0 (resp. v1)
+					data[v*vs+cumulative]=s1;
+				if(twoWeights==true)
+					this.dataP1T2[v]=s2; // cumulative size of the sub-trees of T2 along the path to v1
+			}
+		}
+		if(write==false) {
+			this.blockSum[3*block]=s0;
+			this.blockSum[3*block+1]=s1;
+			this.blockSum[3*block+2]=s2;
+		}
+	}
+
+}
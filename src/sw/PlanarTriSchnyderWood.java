@@ -6,7 +6,6 @@ import java.util.LinkedList;
 import java.util.List;
 
 import Jcg.geometry.Point_;
-import Jcg.util.*;
 
 /**
  * @author Luca Castelli Aleardi (2017, Ecole Polytechnique)
@@ -25,10 +24,13 @@ public class PlanarTriSchnyderWood extends EdgeOrientation {
     /** half-edge (v_0, v_1) oriented toward v_1, assuming the ccw orientation of faces */
     public Halfedge<Point_> rootEdge;
     public Vertex<Point_> v0, v1, v2; // vertices on the root face (the outer face, in the plane)
+    /** array based representation of the half-edges (used for navigating the mesh) */
+    public ArrayBasedHalfedges map;
 
     // auxiliary information needed for computing a Schnyder wood
-    protected DLinkedList<Halfedge<Point_>> outerCycle; // edges defining the outer cycle of the planar map   
+    protected CutBorder outerCycle; // edges defining the outer cycle of the planar map (array based list of half-edges)
     protected boolean[] isChord; // for half-edges, says whether is a chord
+    protected int[] incidentChords; // for vertices on the cut-border, the number of incident chords
     protected boolean[] isOnCutBorder; // say whether a vertex is lying on the cut-border
 
     /**
@@ -57,33 +59,71 @@ public class PlanarTriSchnyderWood extends EdgeOrientation {
     	if(polyhedron.genus()>0)
     		throw new Error("error: non planar mesh");
     	
+    	this.initialize(polyhedron, rootEdge);
+    	System.out.print("\t root face (v"+v0.index+", v"+v1.index+", v"+v2.index+")");
+    	System.out.println("\t root edge e"+rootEdge.index+" (v"+this.rootEdge.getOpposite().getVertex().index+", v"+this.rootEdge.getVertex().index+")");
+   }
+
+    /**
+     * Prepare the computation of a Schnyder wood of another planar triangulation, reusing the arrays allocated for the previous ones:
+     * the arrays are only reallocated when they are too small, so that many meshes can be processed in a row without allocating memory <br>
+     * <br>
+     * Warning: the arrays (e.g. <tt>edgeColor</tt> and <tt>isWellOriented</tt>) can be larger than the number of half-edges of the current mesh
+     */
+    public void reset(Polyhedron_3<Point_> polyhedron, Halfedge<Point_> rootEdge) {
+    	if(polyhedron==null)
+    		throw new Error("error: null polyhedron");
+    	if(rootEdge==null)
+    		throw new Error("error: root edge null");
+    	if(polyhedron.genus()>0)
+    		throw new Error("error: non planar mesh");
+    	this.initialize(polyhedron, rootEdge);
+    }
+
+    /**
+     * Construct the cut-border starting from the root edge (v0, v1), allocating the arrays only if they are too small
+     */
+    private void initialize(Polyhedron_3<Point_> polyhedron, Halfedge<Point_> rootEdge) {
     	int i=0;
     	for(i=0;i<polyhedron.sizeOfVertices();i++) {
     		Vertex<Point_> v=(Vertex<Point_>)polyhedron.vertices.get(i);
     		v.index=i;
     	}
     	
-    	i=0;
-    	for(Object o: polyhedron.halfedges) {
-    		Halfedge<Point_> e=(Halfedge<Point_>)o;
-    		e.index=i;
-    		i++;
-    	}
+    	if(this.map==null)
+    		this.map=new ArrayBasedHalfedges(polyhedron); // half-edges are numbered: opposite half-edges have indices 2k and 2k+1
+    	else
+    		this.map.reset(polyhedron);
     	
     	this.polyhedron=polyhedron;
     	this.rootEdge=rootEdge;    	
         this.v0=this.rootEdge.getOpposite().getVertex();
         this.v1=this.rootEdge.getVertex();
     	
-    	this.outerCycle=new DLinkedList<Halfedge<Point_>>();
+    	int n=this.polyhedron.sizeOfVertices(), size=this.polyhedron.sizeOfHalfedges();
+    	if(this.outerCycle==null)
+    		this.outerCycle=new CutBorder(n); // the cut-border is a simple cycle
+    	else
+    		this.outerCycle.reset(n);
 
-    	this.edgeColor=new byte[this.polyhedron.sizeOfHalfedges()];
-    	for(i=0;i<edgeColor.length;i++)
+    	if(this.edgeColor==null || this.edgeColor.length<size) {
+    		this.edgeColor=new byte[size];
+    		this.isChord=new boolean[size];
+    		this.isWellOriented=new boolean[size];
+    	}
+    	if(this.isOnCutBorder==null || this.isOnCutBorder.length<n) {
+    		this.isOnCutBorder=new boolean[n];
+    		this.incidentChords=new int[n];
+    	}
+    	for(i=0;i<size;i++) {
     		this.edgeColor[i]=-1;
-    	
-    	this.isChord=new boolean[this.polyhedron.sizeOfHalfedges()];
-    	this.isWellOriented=new boolean[this.polyhedron.sizeOfHalfedges()];
-    	this.isOnCutBorder=new boolean[this.polyhedron.sizeOfVertices()];
+    		this.isChord[i]=false;
+    		this.isWellOriented[i]=false;
+    	}
+    	for(i=0;i<n;i++) {
+    		this.isOnCutBorder[i]=false;
+    		this.incidentChords[i]=0;
+    	}
     	
     	Halfedge<Point_> edge10=this.rootEdge.getOpposite();
     	Halfedge<Point_> edge02=edge10.getNext();
@@ -92,8 +132,8 @@ public class PlanarTriSchnyderWood extends EdgeOrientation {
     	this.v2=edge02.getVertex();
     	
     	// setting information concerning the root-edge
-    	this.outerCycle.add(edge02.getOpposite());	
-    	this.outerCycle.add(edge21.getOpposite());
+    	this.outerCycle.add(edge02.getOpposite().index);	
+    	this.outerCycle.add(edge21.getOpposite().index);
     	this.isOnCutBorder[v1.index]=true;
     	this.isOnCutBorder[v0.index]=true; // LCA newly added
     	this.isOnCutBorder[v2.index]=true; // LCA newly added
@@ -104,9 +144,7 @@ public class PlanarTriSchnyderWood extends EdgeOrientation {
     	// set the color of the root edge
     	this.edgeColor[rootEdge.index]=0;
     	this.edgeColor[rootEdge.getOpposite().index]=0;
-    	System.out.print("\t root face (v"+v0.index+", v"+v1.index+", v"+v2.index+")");
-    	System.out.println("\t root edge e"+rootEdge.index+" (v"+this.rootEdge.getOpposite().getVertex().index+", v"+this.rootEdge.getVertex().index+")");
-   }
+    }
 
     /**
      * Make a copy of the Schnyder Wood
@@ -138,21 +176,22 @@ public class PlanarTriSchnyderWood extends EdgeOrientation {
      * @param node The node in the list storing the given half-edge (whose vertex will be removed)
      * @return result return the list node containing the preceding halfedge (on the boundary cycle)
      */
-    public DListNode<Halfedge<Point_>> vertexRemoval(DListNode<Halfedge<Point_>> node) {
-    	if(node==null || this.outerCycle.isEmpty()) {
+    public int vertexRemoval(int node) {
+    	if(node==CutBorder.NONE || this.outerCycle.isEmpty()) {
     		System.out.println("no more vertex to remove ");
-    		return null;
+    		return CutBorder.NONE;
     	}
     	
-    	Halfedge<Point_> rightEdge=node.getElement(); // the vertex v of rightEdge will be removed
-    	if(rightEdge==null) {
+    	int right=this.outerCycle.getElement(node); // the vertex v of rightEdge will be removed
+    	if(right==CutBorder.NONE) {
     		throw new Error("null reference: rightEdge");
     	}
-    	if(rightEdge.getVertex()==this.v0) // vertex v0 cannot be removed
-    		return node.getNext();
+    	int[] next=this.map.next, prev=this.map.prev, vertex=this.map.vertex;
+    	if(vertex[right]==this.v0.index) // vertex v0 cannot be removed
+    		return this.outerCycle.getNext(node);
     	
-    	Halfedge<Point_> leftEdge=node.getPrev().getElement();
-    	if(leftEdge==null) {
+    	int left=this.outerCycle.getElement(this.outerCycle.getPrev(node));
+    	if(left==CutBorder.NONE) {
     		throw new Error("null reference: leftEdge");
     	}
     	
@@ -170,37 +209,40 @@ public class PlanarTriSchnyderWood extends EdgeOrientation {
     	/*if(this.hasIncidentChords[rightEdge.getVertex().index]>0)
     		return i+1; */
     	if(this.hasIncidentChords(node)==true)
-    		return node.getNext();
+    		return this.outerCycle.getNext(node);
     	
     	// general case: the vertex is incident to more than one triangle
     	
     	// process left and right edges incident to v on the cut-border
-    	this.setOutgoingEdge1(rightEdge);
-    	this.setOutgoingEdge0(leftEdge);
+    	this.setOutgoingEdge1(right);
+    	this.setOutgoingEdge0(left);
     	
     	// for computing balanced Schnyder woods
-    	int leftNode=leftEdge.getVertex().index;
-    	int rightNode=rightEdge.getOpposite().getVertex().index;
+    	int leftNode=vertex[left];
+    	int rightNode=vertex[right^1];
     	
     	// v is not anymore on the cut-border
-    	this.isOnCutBorder[rightEdge.getVertex().index]=false;
+    	this.isOnCutBorder[vertex[right]]=false;
     	
     	// add new edges to the cut-border
     	//this.addToCutBorder(rightEdge.getPrev().getOpposite(), i-1);
-    	this.setToCutBorder(rightEdge.getPrev().getOpposite());
-    	node.setElement(rightEdge.getPrev().getOpposite());
-    	DListNode<Halfedge<Point_>> previousNode=node.getPrev(); // the boundary edge preceding
+    	int e=prev[right]^1;
+    	this.setToCutBorder(e);
+    	this.outerCycle.setElement(node, e);
+    	int previousNode=this.outerCycle.getPrev(node); // the boundary edge preceding
    	
-    	Halfedge<Point_> pEdge=rightEdge.getNext().getOpposite();
-    	while(pEdge!=leftEdge.getOpposite()) {
+    	int pEdge=next[right]^1;
+    	while(pEdge!=(left^1)) {
     		//this.addToCutBorder(pEdge.getPrev().getOpposite(), i-1); // old version
-    		this.setToCutBorder(pEdge.getPrev().getOpposite());
-    		this.outerCycle.insertAfter(previousNode, pEdge.getPrev().getOpposite());
+    		this.addChords(pEdge);
+    		e=prev[pEdge]^1;
+    		this.setToCutBorder(e);
+    		this.outerCycle.insertAfter(previousNode, e);
     		this.setIngoingEdge2(pEdge);
     		
-    		pEdge=pEdge.getNext().getOpposite();
+    		pEdge=next[pEdge]^1;
     	}
-    	DListNode<Halfedge<Point_>> result=previousNode.getNext();
+    	int result=this.outerCycle.getNext(previousNode);
     	this.outerCycle.delete(previousNode);
     	
     	return result;
@@ -210,84 +252,98 @@ public class PlanarTriSchnyderWood extends EdgeOrientation {
      * It removes a vertex incident to one triangle from the boundary cycle
      * @param node the list node storing the halfedge whose vertex will be removed
      */
-    private DListNode<Halfedge<Point_>> triangleRemoval(DListNode<Halfedge<Point_>> node) {
-    	Halfedge<Point_> rightEdge=node.getElement();
-    	Halfedge<Point_> leftEdge=node.getPrev().getElement();
+    private int triangleRemoval(int node) {
+    	int right=this.outerCycle.getElement(node);
+    	int left=this.outerCycle.getElement(this.outerCycle.getPrev(node));
 
-    	this.setOutgoingEdge1(rightEdge);
-    	this.setOutgoingEdge0(leftEdge);
+    	this.setOutgoingEdge1(right);
+    	this.setOutgoingEdge0(left);
     	//this.boundary.remove(i);
-    	Halfedge<Point_> e=rightEdge.getPrev().getOpposite();
-    	node.setElement(e);
-    	this.outerCycle.delete(node.getPrev());
+    	int e=this.map.prev[right]^1;
+    	this.outerCycle.setElement(node, e);
+    	this.outerCycle.delete(this.outerCycle.getPrev(node));
 
-    	this.isOnCutBorder[rightEdge.getVertex().index]=false;
+    	this.isOnCutBorder[this.map.vertex[right]]=false;
     	//this.addToCutBorder(rightEdge.getPrev().getOpposite(), i-1);
     	//this.boundary.add(position, e);
 
-    	this.edgeColor[e.index]=3;
-    	this.edgeColor[e.getOpposite().index]=3;
-    	
-    	this.isChord[e.index]=false;
-    	this.isChord[e.getOpposite().index]=false;
-    	
-    	this.isOnCutBorder[e.getVertex().index]=true;
-    	this.isOnCutBorder[e.getOpposite().getVertex().index]=true;
+    	this.setToCutBorder(e);
 
     	return node;
     }
     
     /**
      * Check whether a vertex has incident chords
-     * In that case it cannot be removed from the cut-border
+     * In that case it cannot be removed from the cut-border <br>
+     * <br>
+     * Remark: it takes O(1) time, chords being counted incrementally (see <tt>addChords()</tt>)
      */
-    protected boolean hasIncidentChords(DListNode<Halfedge<Point_>> node) {
-    	Halfedge<Point_> rightEdge=node.getElement();
-    	Halfedge<Point_> leftEdge=node.getPrev().getElement();
+    protected boolean hasIncidentChords(int node) {
+    	return this.incidentChords[this.map.vertex[this.outerCycle.getElement(node)]]>0;
+    }
 
-    	Halfedge<Point_> pEdge=rightEdge.getNext().getOpposite();
-    	while(pEdge!=leftEdge.getOpposite()) {
-    		Vertex<Point_> v=pEdge.getOpposite().getVertex();
-    		if(this.isOnCutBorder[v.index]==true)
-    			return true;
-    		pEdge=pEdge.getNext().getOpposite();
-    	}
-    	return false;
+    /**
+     * Count the chords incident to a vertex 'u' entering the cut-border, when a vertex 'v' is removed. <br>
+     * The inner edges of 'u' (except the ones connecting 'u' to its two neighbors on the cut-border) lie inside the new cut-border:
+     * those whose other extremity is on the cut-border are chords. <br>
+     * <br>
+     * Remark: the vertices entering the cut-border are processed from right to left, before adding the next one.
+     * In this way each chord is counted once, when its second extremity enters the cut-border. Each vertex
+     * enters the cut-border once, so the total cost of the traversal is O(n).
+     * 
+     * @param h  the half-edge (u, v), where 'u' has just been added to the cut-border
+     */
+    protected void addChords(int h) {
+    	int[] next=this.map.next, vertex=this.map.vertex;
+    	int u=vertex[h^1], v=vertex[h];
+    	int a=vertex[next[h]], b=vertex[next[h^1]]; // the neighbors of 'u' on the cut-border
+    	
+    	int pEdge=h; // turn around vertex 'u' (half-edges having 'u' as source)
+    	do {
+    		int w=vertex[pEdge];
+    		if(w!=v && w!=a && w!=b && this.isOnCutBorder[w]==true) {
+    			this.incidentChords[u]++;
+    			this.incidentChords[w]++;
+    			this.isChord[pEdge]=true;
+    			this.isChord[pEdge^1]=true;
+    		}
+    		pEdge=next[pEdge^1];
+    	} while(pEdge!=h);
     }
 
-    protected void setIngoingEdge2(Halfedge<Point_> e) {
-    	this.edgeColor[e.index]=2;
-    	this.edgeColor[e.getOpposite().index]=2;
+    protected void setIngoingEdge2(int e) {
+    	this.edgeColor[e]=2;
+    	this.edgeColor[e^1]=2;
     	
-    	this.isWellOriented[e.index]=true;
-    	this.isWellOriented[e.getOpposite().index]=false;
+    	this.isWellOriented[e]=true;
+    	this.isWellOriented[e^1]=false;
     }
 
-    protected void setOutgoingEdge1(Halfedge<Point_> e) {
-    	this.edgeColor[e.index]=1;
-    	this.edgeColor[e.getOpposite().index]=1;
+    protected void setOutgoingEdge1(int e) {
+    	this.edgeColor[e]=1;
+    	this.edgeColor[e^1]=1;
     	
-    	this.isWellOriented[e.index]=false;
-    	this.isWellOriented[e.getOpposite().index]=true;
+    	this.isWellOriented[e]=false;
+    	this.isWellOriented[e^1]=true;
     }
 
-    protected void setOutgoingEdge0(Halfedge<Point_> e) {
-    	this.edgeColor[e.index]=0;
-    	this.edgeColor[e.getOpposite().index]=0;
+    protected void setOutgoingEdge0(int e) {
+    	this.edgeColor[e]=0;
+    	this.edgeColor[e^1]=0;
     	
-    	this.isWellOriented[e.index]=true;
-    	this.isWellOriented[e.getOpposite().index]=false;
+    	this.isWellOriented[e]=true;
+    	this.isWellOriented[e^1]=false;
     }
 
     /**
      * Add a half-edge to the cut-border, at a given position (in the cut-border)
      * Update all concerned information (colors, existent chords, boundary vertices, ...)
      */
-    public void addToCutBorder(Halfedge<Point_> e, DListNode<Halfedge<Point_>> node) {
+    public void addToCutBorder(int e, int node) {
     	//System.out.println("edge added to cut-border");
-    	if(e==null)
+    	if(e==CutBorder.NONE)
     		throw new Error("halfedge not defined");
-    	if(node==null)
+    	if(node==CutBorder.NONE)
     		throw new Error("error null reference: list node");
     	
     	this.outerCycle.insertBefore(node, e);
@@ -297,16 +353,22 @@ public class PlanarTriSchnyderWood extends EdgeOrientation {
     /**
      * Add a half-edge to the cut-border, at a given position (in the cut-border)
      * Update all concerned information (colors, existent chords, boundary vertices, ...)
+     * 
+     * @param e  the index of the half-edge
      */
-    public void setToCutBorder(Halfedge<Point_> e) {
-    	this.edgeColor[e.index]=3;
-    	this.edgeColor[e.getOpposite().index]=3;
+    public void setToCutBorder(int e) {
+    	this.edgeColor[e]=3;
+    	this.edgeColor[e^1]=3;
     	
-    	this.isChord[e.index]=false;
-    	this.isChord[e.getOpposite().index]=false;
+    	if(this.isChord[e]==true) { // a chord becoming a boundary edge (the removed vertex was incident to one triangle)
+    		this.incidentChords[this.map.vertex[e]]--;
+    		this.incidentChords[this.map.vertex[e^1]]--;
+    	}
+    	this.isChord[e]=false;
+    	this.isChord[e^1]=false;
     	
-    	this.isOnCutBorder[e.getVertex().index]=true;
-    	this.isOnCutBorder[e.getOpposite().getVertex().index]=true;
+    	this.isOnCutBorder[this.map.vertex[e]]=true;
+    	this.isOnCutBorder[this.map.vertex[e^1]]=true;
     }
 
     /**
@@ -317,8 +379,8 @@ public class PlanarTriSchnyderWood extends EdgeOrientation {
     	//System.out.println("Cut border: \n"+this.toString());
     	long startTime=System.nanoTime(), endTime; // for evaluating time performances
     	
-    	DListNode<Halfedge<Point_>> node=this.outerCycle.getFirst().getNext();
-    	if(node==null) {
+    	int node=this.outerCycle.getNext(this.outerCycle.getFirst());
+    	if(node==CutBorder.NONE) {
     		throw new Error("error null reference: first boundary node not defined");
     	}
     	while(this.outerCycle.size()>1) {
@@ -878,35 +940,36 @@ public class PlanarTriSchnyderWood extends EdgeOrientation {
 		System.out.print("Encoding the triangulation (endowed with a Schnyder wood)...");
 		String treeCode=""; // add first edge (v1, v0)
 		String incomingDegrees=""; // vertex v1 has no incident incoming edges of color 2
-		Halfedge<Point_> firstEdge=this.rootEdge.getPrev(); // starting half-edge, of color 0, oriented toward v_0
-		Halfedge<Point_> edge20=this.rootEdge.getOpposite().getNext().getOpposite(); // halfedge v20, oriented toward v_0
-		Halfedge<Point_> lastEdge=edge20.getOpposite();
-		Halfedge<Point_> pEdge=firstEdge; 
+		int[] next=this.map.next, prev=this.map.prev;
+		int firstEdge=prev[this.rootEdge.index]; // starting half-edge, of color 0, oriented toward v_0
+		int edge20=next[this.rootEdge.index^1]^1; // halfedge v20, oriented toward v_0
+		int lastEdge=edge20^1;
+		int pEdge=firstEdge; 
 		
     	while(pEdge!=lastEdge) { // perform the traversal of the contour of T_0
-    		if(this.edgeColor[pEdge.index]==0 && this.isWellOriented[pEdge.index]==true) { // an edge of T_0 visited the first time
+    		if(this.edgeColor[pEdge]==0 && this.isWellOriented[pEdge]==true) { // an edge of T_0 visited the first time
     			if(pEdge!=edge20)
     				treeCode=treeCode+"("; // do not write '(' for the edge (v2, v0)
     			if(pEdge!=firstEdge)
     				incomingDegrees=incomingDegrees+'['; // do not write '[' for the first edge oriented toward v0
-    			pEdge=pEdge.getPrev();
+    			pEdge=prev[pEdge];
     		}
-    		else if(this.edgeColor[pEdge.index]==2 && this.isWellOriented[pEdge.index]==true) { // a black incoming edge
+    		else if(this.edgeColor[pEdge]==2 && this.isWellOriented[pEdge]==true) { // a black incoming edge
     			incomingDegrees=incomingDegrees+']';
-    			pEdge=pEdge.getOpposite().getPrev();
+    			pEdge=prev[pEdge^1];
     		}
-    		else if(this.edgeColor[pEdge.index]==1 && this.isWellOriented[pEdge.index]==false) { // outoing blue edge
-    			pEdge=pEdge.getOpposite().getPrev();
+    		else if(this.edgeColor[pEdge]==1 && this.isWellOriented[pEdge]==false) { // outoing blue edge
+    			pEdge=prev[pEdge^1];
     		}
-    		else if(this.edgeColor[pEdge.index]==2 && this.isWellOriented[pEdge.index]==false) { // black outoing edge
-    			pEdge=pEdge.getOpposite().getPrev();
+    		else if(this.edgeColor[pEdge]==2 && this.isWellOriented[pEdge]==false) { // black outoing edge
+    			pEdge=prev[pEdge^1];
     		}
-    		else if(this.edgeColor[pEdge.index]==1 && this.isWellOriented[pEdge.index]==true) { // a blue incoming edge
-    			pEdge=pEdge.getOpposite().getPrev();
+    		else if(this.edgeColor[pEdge]==1 && this.isWellOriented[pEdge]==true) { // a blue incoming edge
+    			pEdge=prev[pEdge^1];
     		}
-    		else if(this.edgeColor[pEdge.index]==0 && this.isWellOriented[pEdge.index]==false) { // an edge of T_0 encountered the second time
+    		else if(this.edgeColor[pEdge]==0 && this.isWellOriented[pEdge]==false) { // an edge of T_0 encountered the second time
     			treeCode=treeCode+")";
-    			pEdge=pEdge.getPrev();
+    			pEdge=prev[pEdge];
     		}
     		else
     			throw new Error("Error: wrong edge orientation/coloration");
@@ -936,14 +999,15 @@ public class PlanarTriSchnyderWood extends EdgeOrientation {
 		
 		//String treeCode=""; // add first edge (v1, v0)
 		//String incomingDegrees=""; // vertex v1 has no incident incoming edges of color 2
-		Halfedge<Point_> firstEdge=this.rootEdge.getPrev(); // starting half-edge, of color 0, oriented toward v_0
-		Halfedge<Point_> edge20=this.rootEdge.getOpposite().getNext().getOpposite(); // halfedge v20, oriented toward v_0
-		Halfedge<Point_> lastEdge=edge20.getOpposite();
-		Halfedge<Point_> pEdge=firstEdge; 
+		int[] next=this.map.next, prev=this.map.prev;
+		int firstEdge=prev[this.rootEdge.index]; // starting half-edge, of color 0, oriented toward v_0
+		int edge20=next[this.rootEdge.index^1]^1; // halfedge v20, oriented toward v_0
+		int lastEdge=edge20^1;
+		int pEdge=firstEdge; 
 		
 		int height=0;
     	while(pEdge!=lastEdge) { // perform the traversal of the contour of T_0
-    		if(this.edgeColor[pEdge.index]==0 && this.isWellOriented[pEdge.index]==true) { // an edge of T_0 visited the first time
+    		if(this.edgeColor[pEdge]==0 && this.isWellOriented[pEdge]==true) { // an edge of T_0 visited the first time
     			if(pEdge!=edge20) {
     				//treeCode=treeCode+"("; // do not write '(' for the edge (v2, v0)
     				height++;
@@ -952,25 +1016,25 @@ public class PlanarTriSchnyderWood extends EdgeOrientation {
     				//incomingDegrees=incomingDegrees+'['; // do not write '[' for the first edge oriented toward v0
     				height=height;
     			}
-    			pEdge=pEdge.getPrev();
+    			pEdge=prev[pEdge];
     		}
-    		else if(this.edgeColor[pEdge.index]==2 && this.isWellOriented[pEdge.index]==true) { // a black incoming edge
+    		else if(this.edgeColor[pEdge]==2 && this.isWellOriented[pEdge]==true) { // a black incoming edge
     			//incomingDegrees=incomingDegrees+']';
-    			pEdge=pEdge.getOpposite().getPrev();
+    			pEdge=prev[pEdge^1];
     		}
-    		else if(this.edgeColor[pEdge.index]==1 && this.isWellOriented[pEdge.index]==false) { // outoing blue edge
-    			pEdge=pEdge.getOpposite().getPrev();
+    		else if(this.edgeColor[pEdge]==1 && this.isWellOriented[pEdge]==false) { // outoing blue edge
+    			pEdge=prev[pEdge^1];
     		}
-    		else if(this.edgeColor[pEdge.index]==2 && this.isWellOriented[pEdge.index]==false) { // black outoing edge
-    			pEdge=pEdge.getOpposite().getPrev();
+    		else if(this.edgeColor[pEdge]==2 && this.isWellOriented[pEdge]==false) { // black outoing edge
+    			pEdge=prev[pEdge^1];
     		}
-    		else if(this.edgeColor[pEdge.index]==1 && this.isWellOriented[pEdge.index]==true) { // a blue incoming edge
-    			pEdge=pEdge.getOpposite().getPrev();
+    		else if(this.edgeColor[pEdge]==1 && this.isWellOriented[pEdge]==true) { // a blue incoming edge
+    			pEdge=prev[pEdge^1];
     		}
-    		else if(this.edgeColor[pEdge.index]==0 && this.isWellOriented[pEdge.index]==false) { // an edge of T_0 encountered the second time
+    		else if(this.edgeColor[pEdge]==0 && this.isWellOriented[pEdge]==false) { // an edge of T_0 encountered the second time
     			//treeCode=treeCode+")";
     			height--;
-    			pEdge=pEdge.getPrev();
+    			pEdge=prev[pEdge];
     		}
     		else
     			throw new Error("Error: wrong edge orientation/coloration");
@@ -1,11 +1,8 @@
 package sw;
 
-import Jcg.geometry.Point_;
 import Jcg.geometry.Point_2;
 import Jcg.geometry.Point_3;
 import Jcg.polyhedron.Face;
-import Jcg.polyhedron.Halfedge;
-import Jcg.polyhedron.Vertex;
 
 public class SchnyderDrawing {
 	public int verbosity=1;
@@ -20,12 +17,28 @@ public class SchnyderDrawing {
 	 *  coord2D[i][1] is the y-coordinate of the vertex 'v_i'
 	 */
 	public int[][] coord2D=null;
+	/** store the 2d coordinates of the Schnyder drawing in a single array of size 2*n: 
+	 *  coordinates[2*i] and coordinates[2*i+1] are the x and y-coordinates of the vertex 'v_i'
+	 */
+	public int[] coordinates=null;
+	
+	/** memory layouts of the table 'data': array of structures (the 8 values of a vertex are consecutive), or structure of arrays (one column of size n per value) */
+	public static final int AOS=0, SOA=1;
+	/** memory layout used by default (see <tt>TestSchnyderDrawing.benchmarkLayouts()</tt>): other layouts are passed to the constructor */
+	public static final int DEFAULT_LAYOUT=SOA;
+	/** memory layout of the table 'data' (AOS or SOA) */
+	public final int layout;
+	/** the value 'k' (between 0 and 7) of the vertex 'v_i' is stored at data[i*vertexStride+k*fieldStride] */
+	protected int vertexStride, fieldStride;
 	
 	/**
 	 * A table of size 8*n storing all (vertex) data involved in the computation of the Schnyder drawing <br>
 	 * -) the first 3 columns, 0-2, store the height of nodes in the trees T0, T1 and T2 <br>
-	 * -) columns 3, 4 and 5 store the cumulative size of the sub-trees rooted along the paths to the root s<br>
-	 * -) columns 6 and 7 store the size of the subtrees rooted on T0 and T2 (red and black trees)
+	 * -) columns 3, 4 and 5 store the size of the subtrees rooted on T0, T1 and T2 (the sizes in T1 are not computed) <br>
+	 * -) columns 6 and 7 store the cumulative size of the sub-trees of T0 (resp. T2) rooted along the paths to the root of T1 (resp. T0) <br>
+	 * <br>
+	 * The table is stored according to 'layout': with AOS the values of the vertex 'v_i' are data[8*i..8*i+7], with SOA the
+	 * column 'k' is data[k*n..k*n+n-1]
 	 * */
 	public int[] data;
 	
@@ -35,6 +48,19 @@ public class SchnyderDrawing {
 	public int[] dataP2T0;
 	
 	public SchnyderDrawing(PlanarTriSchnyderWood sw) {
+		this(sw, DEFAULT_LAYOUT);
+	}
+	
+	/**
+	 * Initialize the Schnyder drawing, storing the vertex data with a given memory layout (AOS or SOA)
+	 */
+	public SchnyderDrawing(PlanarTriSchnyderWood sw, int layout) {
+		if(layout!=AOS && layout!=SOA)
+			throw new Error("Error: unknown memory layout ("+layout+")");
+		this.layout=layout;
+		int n=(sw!=null) ? sw.polyhedron.sizeOfVertices() : 0;
+		this.vertexStride=(layout==AOS) ? 8 : 1;
+		this.fieldStride=(layout==AOS) ? 1 : n;
 		if(sw==null) {
 			System.out.println("Error: first compute the Shnyder wood");
 			return;
@@ -68,8 +94,22 @@ public class SchnyderDrawing {
 			this.data[i]=0;
 	}
 	
+	/**
+	 * Reset the Schnyder drawing for a new Schnyder wood, possibly of a different mesh: the tables are reused as a workspace,
+	 * and only reallocated when they are too small (their size grows monotonically) <br>
+	 * <br>
+	 * Remark: the tables (and the array 'coordinates') can then be larger than needed for the current mesh
+	 */
 	public void reset(PlanarTriSchnyderWood sw) {
 		this.sw=sw;
+		this.n=sw.polyhedron.sizeOfVertices();
+		if(this.data==null || this.data.length<8*this.n) {
+			this.data=new int[8*this.n];
+			this.dataP1T2=new int[this.n];
+			this.dataP2T0=new int[this.n];
+		}
+		this.fieldStride=(this.layout==AOS) ? 1 : this.n;
+		this.coord2D=null;
 		
 		for(int i=0;i<8*this.n;i++)
 			this.data[i]=0;
@@ -92,17 +132,15 @@ public class SchnyderDrawing {
 			return;
 		}
 
-		this.computeSubtreeSizeT0T2(); // compute the subtree sizes, in a single pass for T0 and T2
-		this.computeHeightT0();
-		//sd.computeHeightT1Fast();
-		this.computeHeightT1();
-		this.computeHeightT2();
+		this.computeTreeStatistics(); // compute the subtree sizes, heights and cumulative sizes, in two passes
 		//this.sd.minSeparatorStat();
 		//System.out.println("Average defect: "+this.sw.countAverageDefect());
 		//this.sd.boundaryStat();
 		//System.out.println(sd.toString());
 		
-		this.compute2DEmbedding();
+		if(this.coordinates==null || this.coordinates.length<2*this.n) // the array is reused (see reset())
+			this.coordinates=new int[2*this.n];
+		this.compute2DCoordinates(this.coordinates); // see compute2DEmbedding() for storing the coordinates in a 2D array
 	}
 	
 	/**
@@ -177,7 +215,7 @@ public class SchnyderDrawing {
 	 * @param size  size of the subtree of a given tree T_j rooted at vertex 'v_i'
 	 */
 	public void setSubTreeSize(int i, int color, int size) {
-			this.data[i*8+3+color]=size;
+			this.data[i*this.vertexStride+(3+color)*this.fieldStride]=size;
 	}
 
 	/**
@@ -187,7 +225,7 @@ public class SchnyderDrawing {
 	 * @param color  index of the tree T_j (j = 0, 1, 2)
 	 */
 	public int getSubTreeSize(int i,int color) {
-			return this.data[i*8+3+color];
+			return this.data[i*this.vertexStride+(3+color)*this.fieldStride];
 	}
 
 	/**
@@ -198,7 +236,7 @@ public class SchnyderDrawing {
 	 * @param height  height of the subtree of a given tree T_j rooted at vertex 'v_i'
 	 */
 	public void setNodeHeight(int i, int color, int height) {
-			this.data[i*8+color]=height;
+			this.data[i*this.vertexStride+color*this.fieldStride]=height;
 	}
 
 	/**
@@ -208,7 +246,7 @@ public class SchnyderDrawing {
 	 * @param color  index of the tree T_j (j = 0, 1, 2)
 	 */
 	public int getNodeHeight(int i,int color) {
-			return this.data[i*8+color];
+			return this.data[i*this.vertexStride+color*this.fieldStride];
 	}
 	
 	/**
@@ -222,9 +260,9 @@ public class SchnyderDrawing {
 	 */
 	public void setCumulativeSize(int i, int color, int size) {
 		if(color==0)
-			this.data[i*8+6]=size;
+			this.data[i*this.vertexStride+6*this.fieldStride]=size;
 		else if(color==2)
-			this.data[i*8+7]=size;
+			this.data[i*this.vertexStride+7*this.fieldStride]=size;
 		else
 			throw new Error("Error: cumulative sub-tree sizes are not stored for the tree T1");
 	}
@@ -239,328 +277,136 @@ public class SchnyderDrawing {
 	 */
 	public int getCumulativeSize(int i,int color) {
 		if(color==0)
-			return this.data[i*8+6];
+			return this.data[i*this.vertexStride+6*this.fieldStride];
 		else if(color==2)
-			return this.data[i*8+7];
+			return this.data[i*this.vertexStride+7*this.fieldStride];
 		else
 			throw new Error("Error: cumulative sub-tree sizes are not stored for the tree T1");
 	}
 
+	/** codes of half-edges, according to their color and orientation: code=2*color+(well oriented ? 1 : 0) */
+	private static final int OUTGOING0=0, INCOMING0=1, OUTGOING1=2, INCOMING1=3, OUTGOING2=4, INCOMING2=5;
 	/**
-	 * Perform a DFS visit of the tree T0 and, for each inner vertex 'v', compute <br>
-	 * -) the size of the sub-tree of color 0 (red) rooted at 'v' <br>
-	 * -) the size of the sub-tree of color 2 (black) rooted at 'v' <br>
-	 * 
-	 * It performs the traversal of the contour of the tree, in ccw order.
-	 * The traversal starts from the half-edge (u, v0) and ends at (v0, v2).
-	 * (u, v0) is the half-edge oriented toward v0 corresponding to
-	 * the first incoming edge incident to v0 (thus of color 0)
+	 * Transition table of the contour traversal of T0: the next half-edge is prev[pEdge^FLIP[code]] <br>
+	 * (edges of T0 are followed, the remaining edges are skipped turning around the current vertex)
 	 */
-	public void computeSubtreeSizeT0T2() {
-		if(this.verbosity>=1)
-			System.out.print("Computing the size of subtrees in T0...");
-		long startTime=System.nanoTime(), endTime; // for evaluating time performances
-		
-		for(int i=0;i<n;i++) {
-			this.setSubTreeSize(i, 0, 1); // all the sub-trees in T0 have size 1 at the beginning
-			this.setSubTreeSize(i, 2, 1); // all the sub-trees in T2 have size 1 at the beginning
-		}
-		this.setSubTreeSize(this.sw.v1.index, 0, 0); // v1 does not belong to T0
-		this.setSubTreeSize(this.sw.v2.index, 0, 0); // v2 does not belong to T0
-		this.setSubTreeSize(this.sw.v0.index, 2, 0); // v0 does not belong to T2
-		this.setSubTreeSize(this.sw.v1.index, 2, 0); // v1 does not belong to T2
-
-		//String treeCode=""; // add first edge (v1, v0)
-		//String incomingDegrees=""; // vertex v1 has no incident incoming edges of color 2
-		Halfedge<Point_> firstEdge=this.sw.rootEdge.getPrev(); // starting half-edge, of color 0, oriented toward v_0
-		Halfedge<Point_> edge20=this.sw.rootEdge.getOpposite().getNext().getOpposite(); // halfedge v20, oriented toward v_0
-		Halfedge<Point_> lastEdge=edge20.getOpposite();
-		Halfedge<Point_> pEdge=firstEdge; 
-		
-		int node, size, descendant, ancestor;
-    	while(pEdge!=lastEdge) { // perform the traversal of the contour of T_0
-    		if(this.sw.edgeColor[pEdge.index]==0 && this.sw.isWellOriented[pEdge.index]==true) { // an edge of 'T' visited the first time
-    			//if(pEdge!=edge20) { // LCA: not useful, to be removed
-    				//treeCode=treeCode+"("; // do not write '(' for the edge (v2, v0)
-    			//}
-    			//if(pEdge!=firstEdge) {
-    				//incomingDegrees=incomingDegrees+'['; // do not write '[' for the first edge oriented toward v0
-    			//}
-    			pEdge=pEdge.getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==2 && this.sw.isWellOriented[pEdge.index]==true) { // ']', a black incoming edge
-    			//incomingDegrees=incomingDegrees+']';
-    			node=pEdge.getVertex().index; // destination node in T2
-    			descendant=pEdge.getOpposite().getVertex().index; // origin of the black edge in T2
-    			size=this.getSubTreeSize(descendant, 2); // size of the subtree in T2 (rooted at the descendant)
-    			
-    			this.setSubTreeSize(node, 2, this.getSubTreeSize(node, 2)+size); // increase the size, adding the size of a subtree
-    			
-    			pEdge=pEdge.getOpposite().getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==1 && this.sw.isWellOriented[pEdge.index]==false) { // outgoing blue edge
-    			pEdge=pEdge.getOpposite().getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==2 && this.sw.isWellOriented[pEdge.index]==false) { // black outgoing edge
-    			pEdge=pEdge.getOpposite().getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==1 && this.sw.isWellOriented[pEdge.index]==true) { // a blue incoming edge
-    			pEdge=pEdge.getOpposite().getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==0 && this.sw.isWellOriented[pEdge.index]==false) { // an edge of T_0 encountered the second time
-    			//treeCode=treeCode+")";
-    			node=pEdge.getVertex().index;
-    			size=this.getSubTreeSize(node, 0);
-    			ancestor=pEdge.getOpposite().getVertex().index; // ancestor node in the tree T0
-    			
-    			this.setSubTreeSize(ancestor, 0, this.getSubTreeSize(ancestor, 0)+size); // increment the size of the subtree rooted at the ancestor node
-    			
-    			pEdge=pEdge.getPrev();
-    		}
-    		//else
-    		//	throw new Error("Error: wrong edge orientation/coloration");
-    	}
-    	// we "must" set the subtree size at 'v2'
-		this.setSubTreeSize(this.sw.v2.index, 2, n-2); // v2 has a sub-tree of size 'n-2'
+	private static final int[] FLIP= {0, 0, 1, 1, 1, 1};
 
-    	//treeCode=treeCode+""; // add last closing parenthesis, corresponding to edge (v2, v0)
-    	
-    	endTime=System.nanoTime();
-        double duration=(double)(endTime-startTime)/1000000000.;
-        if(this.verbosity>1)
-    		System.out.println("done ("+duration+" seconds)");
-        else if(this.verbosity==1)
-    		System.out.println("done");
-	}
+	/** parents of the vertices in the trees T0, T1 and T2 (the parent of 'v' in T_j is stored at index 3*v+j) */
+	private int[] parent;
+	/** vertices of T0, listed in (ccw) preorder and postorder */
+	private int[] preorder, postorder;
 
 	/**
-	 * Perform a DFS visit of the tree T0: for each inner vertex 'v' compute and store in a single pass <br>
-	 * -) the height of node 'v' in the tree T_0 <br>
-	 * -) the cumulative size of all subtrees in 'T_2' rooted at vertex 'v' (along the path from 'v' to 'v0') <br>
-	 * 
+	 * Compute all data involved in the Schnyder drawing (sub-tree sizes, heights and cumulative sizes in the trees T0, T1 and T2),
+	 * performing two passes: <br>
+	 * -) a traversal of the contour of T0 computes the sizes of the sub-trees of T0 and T2, the parents of all vertices
+	 * (in the three trees), and the preorder and postorder of T0 <br>
+	 * -) the heights and the cumulative sizes are computed by prefix sums along the three trees (without traversing the mesh) <br>
 	 * <br>
-	 * It performs the traversal of the contour of the tree, in ccw order.
-	 * The traversal starts from the half-edge (u, v0) and ends at (v0, v2).
-	 * (u, v0) is the half-edge oriented toward v0 corresponding to
-	 * the first incoming edge incident to v0 (thus of color 0)
+	 * Each half-edge is classified according to its color and orientation (a code between 0 and 5), which determines the next
+	 * step of the traversal (see the table <tt>FLIP</tt>) and the action performed on the half-edge (a dense switch). <br>
+	 * Remark: the actions are not encoded in tables, since a branch-free step performs all the updates (parents and
+	 * sub-tree sizes) on every half-edge, most of them void: the extra memory accesses turn out to be slower than the branches <br>
+	 * The second pass relies on the following properties of Schnyder woods: the (ccw) preorder of T0 lists the
+	 * children of T2 before their parents, and the postorder of T0 lists the parents of T1 before their children.
 	 */
-	public void computeHeightT0() {
+	public void computeTreeStatistics() {
 		if(this.verbosity>=1)
-			System.out.print("Computing the height of nodes in the tree T0...");
+			System.out.print("Computing the sizes and heights of subtrees in T0, T1 and T2...");
 		long startTime=System.nanoTime(), endTime; // for evaluating time performances
-		
-		Halfedge<Point_> firstEdge=this.sw.rootEdge.getPrev(); // starting half-edge, of color 0, oriented toward v_0
-		Halfedge<Point_> edge20=this.sw.rootEdge.getOpposite().getNext().getOpposite(); // halfedge v20, oriented toward v_0
-		Halfedge<Point_> lastEdge=edge20.getOpposite();
-		Halfedge<Point_> pEdge=firstEdge; 
-		
-		int height=0;
-    	while(pEdge!=lastEdge) { // perform the traversal of the contour of T_0
-    		if(this.sw.edgeColor[pEdge.index]==0 && this.sw.isWellOriented[pEdge.index]==true) { // an edge of 'T' visited the first time
-    			if(pEdge!=edge20) {
-    				//treeCode=treeCode+"("; // do not write '(' for the edge (v2, v0)
-    				height++;
-    				
-    				int newNode=pEdge.getOpposite().getVertex().index; // index of the new node encountered during the DFS
-    				int ancestor=pEdge.getVertex().index; // index of its ancestor node
-    				
-    				//System.out.println(newNode+", "+ancestor+", height "+height);
-    				//System.out.println("height before update: "+this.getNodeHeight(newNode, 0));
-    				
-    				this.setNodeHeight(newNode, 0, height); // store the height of the new (descendant) node in 'T0'
-    				//System.out.println("height after update: "+this.getNodeHeight(newNode, 0));
-    				
-    				// compute the cumulative size of sub-trees of color '2' (black) rooted on the 'red' path (from the node to the root of 'T0')
-    				int cumulative=this.getCumulativeSize(ancestor, 2);
-    				this.setCumulativeSize(newNode, 2, cumulative+this.getSubTreeSize(newNode, 2));
-    			}
-    			if(pEdge!=firstEdge) { // '['
-    				//incomingDegrees=incomingDegrees+'['; // do not write '[' for the first edge oriented toward v0
-    			}
-    			pEdge=pEdge.getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==2 && this.sw.isWellOriented[pEdge.index]==true) { // a black incoming edge ']'
-    			//incomingDegrees=incomingDegrees+']';
-    			pEdge=pEdge.getOpposite().getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==1 && this.sw.isWellOriented[pEdge.index]==false) { // outgoing blue edge
-    			pEdge=pEdge.getOpposite().getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==2 && this.sw.isWellOriented[pEdge.index]==false) { // black outgoing edge
-    			pEdge=pEdge.getOpposite().getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==1 && this.sw.isWellOriented[pEdge.index]==true) { // a blue incoming edge
-    			pEdge=pEdge.getOpposite().getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==0 && this.sw.isWellOriented[pEdge.index]==false) { // ')', an edge of T_0 encountered the second time
-    			//treeCode=treeCode+")";
-    			height--; 
-    			
-    			pEdge=pEdge.getPrev();
-    		}
-    	}
-    	
-    	endTime=System.nanoTime();
-        double duration=(double)(endTime-startTime)/1000000000.;
-        if(this.verbosity>1)
-    		System.out.println("done ("+duration+" seconds)");
-        else if(this.verbosity==1)
-    		System.out.println("done");
-	}
 
-	/**
-	 * Perform a DFS visit of the tree T1: for each inner vertex 'v' compute and store in a single pass <br>
-	 * -) the height of node 'v' in the tree T_1 <br>
-	 * -) the cumulative size of all subtrees in 'T_2' rooted at vertex 'v' (along the path from 'v' to 'v0') <br>
-	 * 
-	 * <br>
-	 * It performs the traversal of the contour of the tree, in ccw order.
-	 * The traversal starts from the half-edge (v2, v1) and ends at (v0, v1).
-	 * (v2, v1) is the half-edge oriented toward v1 corresponding to
-	 * the first incoming inner edge incident to v1 (thus of color 1)
-	 */
-	public void computeHeightT1() {
-		if(this.verbosity>=1)
-			System.out.print("Computing the height of nodes in the tree T1...");
-		long startTime=System.nanoTime(), endTime; // for evaluating time performances
-		
-		Halfedge<Point_> firstEdge=this.sw.rootEdge.getOpposite().getPrev().getOpposite().getPrev(); // starting half-edge: inner halfedge of color 1, oriented toward v_1
-		Halfedge<Point_> edge01=this.sw.rootEdge; // halfedge v01, oriented toward v_1
-		Halfedge<Point_> lastEdge=edge01;
-		Halfedge<Point_> pEdge=firstEdge; 
-		
-		//System.out.println("First incoming blue edge (toward at v1): "+firstEdge.getOpposite().getVertex().index+", "+firstEdge.getVertex().index);
-		
-		int height=0;
-		//int count=0;
-    	while(pEdge!=lastEdge) { // perform the traversal of the contour of T_1
-    		//count++;
-    		//System.out.println("pEdge "+count+": "+pEdge.getOpposite().getVertex().index+", "+pEdge.getVertex().index);
+		int n=this.n;
+		int[] data=this.data, dataP1T2=this.dataP1T2, dataP2T0=this.dataP2T0;
+		if(this.parent==null || this.parent.length<3*n) {
+			this.parent=new int[3*n];
+			this.preorder=new int[n];
+			this.postorder=new int[n];
+		}
+		int[] parent=this.parent, preorder=this.preorder, postorder=this.postorder;
+		int v0=this.sw.v0.index, v1=this.sw.v1.index, v2=this.sw.v2.index;
+		int vs=this.vertexStride, fs=this.fieldStride; // the value 'k' of the vertex 'v' is stored at data[v*vs+k*fs]
+		int h0=0, h1=fs, h2=2*fs, s0=3*fs, s2=5*fs, c0=6*fs, c2=7*fs; // heights, sub-tree sizes and cumulative sizes
 
-    		if(this.sw.edgeColor[pEdge.index]==1 && this.sw.isWellOriented[pEdge.index]==true) { // an edge of 'T1' visited the first time
-    			if(pEdge!=edge01) {
-    				height++;
-    				
-    				int newNode=pEdge.getOpposite().getVertex().index; // index of the new node encountered during the DFS
-    				int ancestor=pEdge.getVertex().index; // index of its ancestor node
-    				
-    				this.setNodeHeight(newNode, 1, height); // store the height of the new (descendant) node in 'T1'
-    				
-    				// compute the cumulative size of sub-trees of color '0' rooted on the 'blue' path (from the node to the root of 'T1')
-    				int cumulative=this.getCumulativeSize(ancestor, 0);
-    				this.setCumulativeSize(newNode, 0, cumulative+this.getSubTreeSize(newNode, 0));
+		for(int i=0;i<n;i++) {
+			data[i*vs+s0]=1; // all the sub-trees in T0 have size 1 at the beginning
+			data[i*vs+s2]=1; // all the sub-trees in T2 have size 1 at the beginning
+		}
+		data[v1*vs+s0]=0; // v1 does not belong to T0
+		data[v2*vs+s0]=0; // v2 does not belong to T0
+		data[v0*vs+s2]=0; // v0 does not belong to T2
+		data[v1*vs+s2]=0; // v1 does not belong to T2
 
-    				// compute the cumulative size of sub-trees of color '2' rooted on the 'blue' path (from the node to the root of 'T1')
-    				//cumulative=this.getCumulativeSize(ancestor, 2);
-    				//this.setCumulativeSize(newNode, 2, cumulative+this.getSubTreeSize(newNode, 2));
-    				cumulative=this.dataP1T2[ancestor];
-    				this.dataP1T2[newNode]=cumulative+this.getSubTreeSize(newNode, 2);
-    			}
-    			pEdge=pEdge.getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==0 && this.sw.isWellOriented[pEdge.index]==true) { // a black incoming edge ']'
-    			//incomingDegrees=incomingDegrees+']';
-    			pEdge=pEdge.getOpposite().getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==2 && this.sw.isWellOriented[pEdge.index]==false) { // outgoing blue edge
-    			pEdge=pEdge.getOpposite().getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==0 && this.sw.isWellOriented[pEdge.index]==false) { // black outgoing edge
-    			pEdge=pEdge.getOpposite().getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==2 && this.sw.isWellOriented[pEdge.index]==true) { // a blue incoming edge
-    			pEdge=pEdge.getOpposite().getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==1 && this.sw.isWellOriented[pEdge.index]==false) { // ')', an edge of T_0 encountered the second time
-    			//treeCode=treeCode+")";
-    			height--; 
-    			
-    			pEdge=pEdge.getPrev();
-    		}
-    	}
-    	
-    	endTime=System.nanoTime();
-        double duration=(double)(endTime-startTime)/1000000000.;
-        if(this.verbosity>1)
-    		System.out.println("done ("+duration+" seconds)");
-        else if(this.verbosity==1)
-    		System.out.println("done");
-	}
+		// first pass: traversal of the contour of T0
+		int[] next=this.sw.map.next, prev=this.sw.map.prev, vertex=this.sw.map.vertex;
+		byte[] edgeColor=this.sw.edgeColor;
+		boolean[] isWellOriented=this.sw.isWellOriented;
+		int firstEdge=prev[this.sw.rootEdge.index]; // starting half-edge, of color 0, oriented toward v_0
+		int edge20=next[this.sw.rootEdge.index^1]^1; // halfedge v20, oriented toward v_0
+		int lastEdge=edge20^1;
+		int pEdge=firstEdge;
+		int countPre=0, countPost=0;
+		while(pEdge!=lastEdge) {
+			int code=(edgeColor[pEdge]<<1)|(isWellOriented[pEdge] ? 1 : 0);
+			int source=vertex[pEdge^1], target=vertex[pEdge];
+			switch(code) {
+			case INCOMING0: // '(', an edge of T0 visited the first time
+				parent[3*source]=target;
+				if(pEdge!=edge20)
+					preorder[countPre++]=source;
+				break;
+			case OUTGOING0: // ')', an edge of T0 visited the second time: the sub-tree rooted at 'target' is complete
+				data[source*vs+s0]+=data[target*vs+s0];
+				postorder[countPost++]=target;
+				break;
+			case INCOMING2: // ']', a black incoming edge: the sub-tree of T2 rooted at 'source' is complete
+				data[target*vs+s2]+=data[source*vs+s2];
+				break;
+			case OUTGOING1: // outgoing blue edge (toward the parent of 'target' in T1)
+				parent[3*target+1]=source;
+				break;
+			case OUTGOING2: // outgoing black edge (toward the parent of 'target' in T2)
+				parent[3*target+2]=source;
+				break;
+			case INCOMING1: // a blue incoming edge
+				break;
+			default:
+				throw new Error("Error: wrong edge orientation/coloration");
+			}
+			pEdge=prev[pEdge^FLIP[code]];
+		}
+		data[v2*vs+s2]=n-2; // v2 has a sub-tree of size 'n-2'
 
-	/**
-	 * Perform a DFS visit of the tree T2: for each inner vertex 'v' compute and store in a single pass <br>
-	 * -) the height of node 'v' in the tree T_2 <br>
-	 * -) the cumulative size of all subtrees in 'T_0' rooted at vertex 'v' (along the path from 'v' to 'v2') <br>
-	 * 
-	 * <br>
-	 * It performs the traversal of the contour of the tree, in ccw order. <br>
-	 * <br>
-	 * Remark: 
-	 * the first incoming inner edge incident to v2 (thus of color 2)
-	 */
-	public void computeHeightT2() {
-		if(this.verbosity>=1)
-			System.out.print("Computing the height of nodes in the tree T2...");
-		long startTime=System.nanoTime(), endTime; // for evaluating time performances
-		
-		Halfedge<Point_> firstEdge=this.sw.rootEdge.getOpposite().getNext().getOpposite().getPrev(); // starting half-edge: inner halfedge of color 2, oriented toward v_2
-		Halfedge<Point_> edge12=this.sw.rootEdge.getOpposite().getPrev().getPrev(); // halfedge v12, oriented toward v_2
-		Halfedge<Point_> lastEdge=edge12;
-		Halfedge<Point_> pEdge=firstEdge; 
-		
-		//System.out.println("First incoming blue edge (toward at v1): "+firstEdge.getOpposite().getVertex().index+", "+firstEdge.getVertex().index);
-		
-		int height=0;
-		int cumulative;
-		//int count=0;
-    	while(pEdge!=lastEdge) { // perform the traversal of the contour of T_1
-    		//count++;
-    		//System.out.println("pEdge "+count+": "+pEdge.getOpposite().getVertex().index+", "+pEdge.getVertex().index);
+		// second pass: prefix sums along the paths to the roots of T0, T1 and T2
+		for(int i=0;i<countPre;i++) { // T0: parents are visited before their children in preorder
+			int v=preorder[i], p=parent[3*v];
+			data[v*vs+h0]=data[p*vs+h0]+1; // height in T0
+			data[v*vs+c2]=data[p*vs+c2]+data[v*vs+s2]; // cumulative size of the sub-trees of T2 along the path to v0
+		}
+		for(int i=0;i<countPost;i++) { // T1: parents are visited before their children in postorder
+			int v=postorder[i];
+			if(v==v1)
+				continue;
+			int p=parent[3*v+1];
+			data[v*vs+h1]=data[p*vs+h1]+1; // height in T1
+			data[v*vs+c0]=data[p*vs+c0]+data[v*vs+s0]; // cumulative size of the sub-trees of T0 along the path to v1
+			dataP1T2[v]=dataP1T2[p]+data[v*vs+s2]; // cumulative size of the sub-trees of T2 along the path to v1
+		}
+		for(int i=countPre-1;i>=0;i--) { // T2: parents are visited before their children in reverse preorder
+			int v=preorder[i];
+			if(v==v1)
+				continue;
+			int p=parent[3*v+2];
+			data[v*vs+h2]=data[p*vs+h2]+1; // height in T2
+			dataP2T0[v]=dataP2T0[p]+data[v*vs+s0]; // cumulative size of the sub-trees of T0 along the path to v2
+		}
 
-    		if(this.sw.edgeColor[pEdge.index]==2 && this.sw.isWellOriented[pEdge.index]==true) { // an edge of 'T2' visited the first time
-    			if(pEdge!=edge12) {
-    				height++;
-    				
-    				int newNode=pEdge.getOpposite().getVertex().index; // index of the new node encountered during the DFS
-    				int ancestor=pEdge.getVertex().index; // index of its ancestor node
-    				
-    				this.setNodeHeight(newNode, 2, height); // store the height of the new (descendant) node in 'T2'
-    				
-    				// compute the cumulative size of sub-trees of color '0' rooted on the 'black' path (from the node to the root of 'T2')
-    				//cumulative=this.getCumulativeSize(ancestor, 0);
-    				//this.setCumulativeSize(newNode, 0, cumulative+this.getSubTreeSize(newNode, 0));
-    				cumulative=this.dataP2T0[ancestor];
-    				this.dataP2T0[newNode]=cumulative+this.getSubTreeSize(newNode, 0);
-    			}
-    			pEdge=pEdge.getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==1 && this.sw.isWellOriented[pEdge.index]==true) { // a black incoming edge ']'
-    			//incomingDegrees=incomingDegrees+']';
-    			pEdge=pEdge.getOpposite().getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==0 && this.sw.isWellOriented[pEdge.index]==false) { // outgoing blue edge
-    			pEdge=pEdge.getOpposite().getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==1 && this.sw.isWellOriented[pEdge.index]==false) { // black outgoing edge
-    			pEdge=pEdge.getOpposite().getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==0 && this.sw.isWellOriented[pEdge.index]==true) { // a blue incoming edge
-    			pEdge=pEdge.getOpposite().getPrev();
-    		}
-    		else if(this.sw.edgeColor[pEdge.index]==2 && this.sw.isWellOriented[pEdge.index]==false) { // ')', an edge of T_0 encountered the second time
-    			//treeCode=treeCode+")";
-    			height--; 
-    			
-    			pEdge=pEdge.getPrev();
-    		}
-    	}
-    	
-    	endTime=System.nanoTime();
-        double duration=(double)(endTime-startTime)/1000000000.;
-        if(this.verbosity>1)
-    		System.out.println("done ("+duration+" seconds)");
-        else if(this.verbosity==1)
-    		System.out.println("done");
+		endTime=System.nanoTime();
+		double duration=(double)(endTime-startTime)/1000000000.;
+		if(this.verbosity>1)
+			System.out.println("done ("+duration+" seconds)");
+		else if(this.verbosity==1)
+			System.out.println("done");
 	}
 
 	/**
@@ -579,14 +425,15 @@ public class SchnyderDrawing {
 		
 		//String treeCode=""; // add first edge (v1, v0)
 		//String incomingDegrees=""; // vertex v1 has no incident incoming edges of color 2
-		Halfedge<Point_> firstEdge=this.sw.rootEdge.getPrev(); // starting half-edge, of color 0, oriented toward v_0
-		Halfedge<Point_> edge20=this.sw.rootEdge.getOpposite().getNext().getOpposite(); // halfedge v20, oriented toward v_0
-		Halfedge<Point_> lastEdge=edge20.getOpposite();
-		Halfedge<Point_> pEdge=firstEdge; 
+		int[] next=this.sw.map.next, prev=this.sw.map.prev, vertex=this.sw.map.vertex;
+		int firstEdge=prev[this.sw.rootEdge.index]; // starting half-edge, of color 0, oriented toward v_0
+		int edge20=next[this.sw.rootEdge.index^1]^1; // halfedge v20, oriented toward v_0
+		int lastEdge=edge20^1;
+		int pEdge=firstEdge; 
 		
 		int height=0;
     	while(pEdge!=lastEdge) { // perform the traversal of the contour of T_0
-    		if(this.sw.edgeColor[pEdge.index]==0 && this.sw.isWellOriented[pEdge.index]==true) { // an edge of T_0 visited the first time
+    		if(this.sw.edgeColor[pEdge]==0 && this.sw.isWellOriented[pEdge]==true) { // an edge of T_0 visited the first time
     			if(pEdge!=edge20) {
     				//treeCode=treeCode+"("; // do not write '(' for the edge (v2, v0)
     				height++;
@@ -595,24 +442,24 @@ public class SchnyderDrawing {
     				//incomingDegrees=incomingDegrees+'['; // do not write '[' for the first edge oriented toward v0
     				height=height;
     			}
-    			pEdge=pEdge.getPrev();
+    			pEdge=prev[pEdge];
     		}
-    		else if(this.sw.edgeColor[pEdge.index]==2 && this.sw.isWellOriented[pEdge.index]==true) { // a black incoming edge
+    		else if(this.sw.edgeColor[pEdge]==2 && this.sw.isWellOriented[pEdge]==true) { // a black incoming edge
     			//incomingDegrees=incomingDegrees+']';
-    			pEdge=pEdge.getOpposite().getPrev();
+    			pEdge=prev[pEdge^1];
     		}
-    		else if(this.sw.edgeColor[pEdge.index]==1 && this.sw.isWellOriented[pEdge.index]==false) { // outoing blue edge
-    			pEdge=pEdge.getOpposite().getPrev();
+    		else if(this.sw.edgeColor[pEdge]==1 && this.sw.isWellOriented[pEdge]==false) { // outoing blue edge
+    			pEdge=prev[pEdge^1];
     		}
-    		else if(this.sw.edgeColor[pEdge.index]==2 && this.sw.isWellOriented[pEdge.index]==false) { // black outoing edge
-    			pEdge=pEdge.getOpposite().getPrev();
+    		else if(this.sw.edgeColor[pEdge]==2 && this.sw.isWellOriented[pEdge]==false) { // black outoing edge
+    			pEdge=prev[pEdge^1];
     		}
-    		else if(this.sw.edgeColor[pEdge.index]==1 && this.sw.isWellOriented[pEdge.index]==true) { // a blue incoming edge
-    			pEdge=pEdge.getOpposite().getPrev();
+    		else if(this.sw.edgeColor[pEdge]==1 && this.sw.isWellOriented[pEdge]==true) { // a blue incoming edge
+    			pEdge=prev[pEdge^1];
     		}
-    		else if(this.sw.edgeColor[pEdge.index]==0 && this.sw.isWellOriented[pEdge.index]==false) { // an edge of T_0 encountered the second time
+    		else if(this.sw.edgeColor[pEdge]==0 && this.sw.isWellOriented[pEdge]==false) { // an edge of T_0 encountered the second time
     			//treeCode=treeCode+")";
-    			pEdge=pEdge.getPrev(); // move to the next edge, according to the DFS traversal
+    			pEdge=prev[pEdge]; // move to the next edge, according to the DFS traversal
     		}
     		else
     			throw new Error("Error: wrong edge orientation/coloration");
@@ -635,29 +482,57 @@ public class SchnyderDrawing {
 	 * Compute and return the integer coordinates of the vertices in the 2D Schnyder embedding
 	 */
 	public int[][] compute2DEmbedding() {
+		int[] coordinates=this.compute2DCoordinates();
 		int[][] coord2D=new int[this.n][2];
-		
+		for(int v=0;v<this.n;v++) {
+			coord2D[v][0]=coordinates[2*v];
+			coord2D[v][1]=coordinates[2*v+1];
+		}
+		return coord2D;
+	}
+
+	/**
+	 * Compute and return the integer coordinates of the vertices in the 2D Schnyder embedding, stored in a single array
+	 * (the coordinates of the vertex 'v_i' are at indices 2*i and 2*i+1)
+	 */
+	public int[] compute2DCoordinates() {
+		int[] coordinates=new int[2*this.n];
+		this.compute2DCoordinates(coordinates);
+		return coordinates;
+	}
+
+	/**
+	 * Compute the integer coordinates of the vertices in the 2D Schnyder embedding, and store them in a given array (of size at least 2n)
+	 */
+	protected void compute2DCoordinates(int[] coordinates) {
+		this.compute2DEmbedding(coordinates, 0, this.n);
+	}
+
+	/**
+	 * Compute the integer coordinates of the vertices v_start, ..., v_(end-1) in the 2D Schnyder embedding
+	 */
+	protected void compute2DEmbedding(int[] coordinates, int start, int end) {
 		int f=2*this.n-5; // f=2n-5
 		
-		for(Vertex v: this.sw.polyhedron.vertices) {
+		for(int v=start;v<end;v++) {
 			int x, y;
 
-			if(v==this.sw.v0) {
+			if(v==this.sw.v0.index) {
 				x=0; y=0;
 			}
-			else if(v==this.sw.v1) {
+			else if(v==this.sw.v1.index) {
 				x=f; y=0;
 			}
-			else if(v==this.sw.v2) {
+			else if(v==this.sw.v2.index) {
 				x=0; y=f;
 			}
 			else {
 				int b0, b1, b2;
 
 				// compute the 3 barycentric coordinates
-				b0=this.getFaceArea(v.index, 0);
-				b1=this.getFaceArea(v.index, 1);
-				b2=this.getFaceArea(v.index, 2);
+				b0=this.getFaceArea(v, 0);
+				b1=this.getFaceArea(v, 1);
+				b2=this.getFaceArea(v, 2);
 				
 				/*System.out.print("v"+v.index+": "+p0+", "+p1+", "+p2+" - ");
 				System.out.print("\t"+v0+", "+v1+", "+v2+"");*/
@@ -668,11 +543,10 @@ public class SchnyderDrawing {
 				y=0*b0+0*b1+1*b2;
 			}
 			//System.out.println("\tv"+v.index+":\t"+p);
-			coord2D[v.index][0]=x;
-			coord2D[v.index][1]=y;
+			coordinates[2*v]=x;
+			coordinates[2*v+1]=y;
 			//System.out.println("v"+v.index+": "+v.getPoint());
 		}
-		return coord2D;
 	}
 	
 	/**